@@ -0,0 +1,33 @@
+package dev.gerasimova.jmh;
+
+import dev.gerasimova.model.Author;
+import dev.gerasimova.model.Book;
+
+/**
+ * Тестовые данные для бенчмарков.
+ */
+final class BenchmarkData {
+    static final String JWT_SECRET = "benchmarkSecretKey1234567890123456789012";
+    static final long JWT_EXPIRATION_MS = 900_000L;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @return книга с автором и назначенными идентификаторами, как после сохранения
+     */
+    static Book book() {
+        Author author = new Author();
+        author.setId(1L);
+        author.setName("Лев");
+        author.setSurname("Толстой");
+
+        Book book = new Book();
+        book.setId(42L);
+        book.setTitle("Война и мир");
+        book.setPrice(1400.0);
+        book.setYearRelease(2013);
+        book.setAuthor(author);
+        return book;
+    }
+}
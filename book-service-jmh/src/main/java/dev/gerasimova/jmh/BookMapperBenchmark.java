@@ -0,0 +1,45 @@
+package dev.gerasimova.jmh;
+
+import dev.gerasimova.dto.BookResponseDto;
+import dev.gerasimova.mapper.BookMapper;
+import dev.gerasimova.mapper.BookMapperImpl;
+import dev.gerasimova.model.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк преобразования книги в DTO ответа (выполняется на каждый ответ API).
+ *
+ * @see BookMapper#toBookResponseDto(Book)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class BookMapperBenchmark {
+    private BookMapper bookMapper;
+    private Book book;
+
+    @Setup
+    public void setUp() {
+        bookMapper = new BookMapperImpl();
+        book = BenchmarkData.book();
+    }
+
+    @Benchmark
+    public BookResponseDto toBookResponseDto() {
+        return bookMapper.toBookResponseDto(book);
+    }
+}
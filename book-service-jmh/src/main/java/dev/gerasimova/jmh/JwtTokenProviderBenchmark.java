@@ -0,0 +1,57 @@
+package dev.gerasimova.jmh;
+
+import dev.gerasimova.utils.JwtTokenProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк операций с JWT, которые выполняются на каждый аутентифицированный запрос.
+ *
+ * @see JwtTokenProvider
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class JwtTokenProviderBenchmark {
+    private JwtTokenProvider jwtTokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = new JwtTokenProvider(BenchmarkData.JWT_SECRET);
+        Field expiration = ReflectionUtils.findField(JwtTokenProvider.class, "expirationMs");
+        ReflectionUtils.makeAccessible(expiration);
+        ReflectionUtils.setField(expiration, jwtTokenProvider, BenchmarkData.JWT_EXPIRATION_MS);
+        token = jwtTokenProvider.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenProvider.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtTokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public String getUsernameFromToken() {
+        return jwtTokenProvider.getUsernameFromToken(token);
+    }
+}
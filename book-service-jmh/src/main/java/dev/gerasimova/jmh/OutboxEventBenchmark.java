@@ -0,0 +1,68 @@
+package dev.gerasimova.jmh;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import dev.gerasimova.dto.BookCreatedEvent;
+import dev.gerasimova.model.Book;
+import dev.gerasimova.model.OutboxEvent;
+import dev.gerasimova.service.OutboxEventFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк подготовки события outbox при создании книги:
+ * построение BookCreatedEvent, его сериализация и создание OutboxEvent целиком.
+ * ObjectMapper настроен как в Spring Boot (модули из classpath, даты в ISO-8601).
+ *
+ * @see OutboxEventFactory#bookCreated(Book)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class OutboxEventBenchmark {
+    private ObjectMapper objectMapper;
+    private OutboxEventFactory outboxEventFactory;
+    private Book book;
+    private BookCreatedEvent event;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        outboxEventFactory = new OutboxEventFactory(objectMapper);
+        book = BenchmarkData.book();
+        event = BookCreatedEvent.from(book);
+    }
+
+    @Benchmark
+    public BookCreatedEvent eventFrom() {
+        return BookCreatedEvent.from(book);
+    }
+
+    @Benchmark
+    public String serializeEvent() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(event);
+    }
+
+    @Benchmark
+    public OutboxEvent createOutboxEvent() throws JsonProcessingException {
+        return outboxEventFactory.bookCreated(book);
+    }
+}
@@ -0,0 +1,44 @@
+package dev.gerasimova.jmh;
+
+import dev.gerasimova.utils.PageableUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк разбора параметров пагинации и сортировки из URL
+ * (выполняется на каждый запрос /api/books/search).
+ *
+ * @see PageableUtils
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class PageableBenchmark {
+    @Param({"", "title", "price,desc"})
+    private String sort;
+
+    @Benchmark
+    public Sort parseSort() {
+        return PageableUtils.parseSort(sort);
+    }
+
+    @Benchmark
+    public Pageable convertURLtoPageable() {
+        return PageableUtils.convertURLtoPageable(3, 20, sort);
+    }
+}
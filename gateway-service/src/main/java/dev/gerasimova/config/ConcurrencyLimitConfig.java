@@ -0,0 +1,42 @@
+package dev.gerasimova.config;
+
+import dev.gerasimova.filter.ConcurrencyLimitFilter;
+import dev.gerasimova.utils.ReactiveConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Создает ограничители одновременных запросов для маршрутов по настройкам gateway.concurrency-limit.
+ * На каждый маршрут создается один ограничитель, фильтры маршрута разделяют его.
+ *
+ * @see ReactiveConcurrencyLimiter
+ */
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@RequiredArgsConstructor
+public class ConcurrencyLimitConfig {
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ReactiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * Возвращает фильтр ограничения одновременных запросов для маршрута.
+     *
+     * @param routeId идентификатор маршрута
+     * @return фильтр маршрута
+     */
+    public ConcurrencyLimitFilter filterFor(String routeId) {
+        return new ConcurrencyLimitFilter(limiters.computeIfAbsent(routeId, this::createLimiter));
+    }
+
+    private ReactiveConcurrencyLimiter createLimiter(String routeId) {
+        ConcurrencyLimitProperties.Limit limit = properties.forRoute(routeId);
+        return new ReactiveConcurrencyLimiter(routeId, limit.getMaxConcurrent(), limit.getMaxQueue(),
+                limit.getMaxWait(), meterRegistry);
+    }
+}
@@ -0,0 +1,60 @@
+package dev.gerasimova.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки ограничения одновременных запросов по маршрутам (gateway.concurrency-limit.*).
+ * Для маршрута без собственных настроек используются defaults.
+ *
+ * <pre>
+ * gateway:
+ *   concurrency-limit:
+ *     defaults:
+ *       max-concurrent: 50
+ *     routes:
+ *       library-api-v1:
+ *         max-concurrent: 20
+ *         max-queue: 50
+ *         max-wait: 200ms
+ * </pre>
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "gateway.concurrency-limit")
+public class ConcurrencyLimitProperties {
+    private Limit defaults = new Limit();
+    private Map<String, Limit> routes = new HashMap<>();
+
+    /**
+     * Возвращает настройки маршрута или настройки по умолчанию.
+     *
+     * @param routeId идентификатор маршрута
+     * @return настройки ограничения
+     */
+    public Limit forRoute(String routeId) {
+        return routes.getOrDefault(routeId, defaults);
+    }
+
+    @Getter
+    @Setter
+    public static class Limit {
+        /**
+         * Максимум одновременно выполняемых запросов.
+         */
+        private int maxConcurrent = 50;
+        /**
+         * Максимум запросов, ожидающих освобождения слота.
+         */
+        private int maxQueue = 100;
+        /**
+         * Максимальное время ожидания слота, после которого запрос отклоняется.
+         */
+        private Duration maxWait = Duration.ofMillis(500);
+    }
+}
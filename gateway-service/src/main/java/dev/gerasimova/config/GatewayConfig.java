@@ -1,6 +1,6 @@
 package dev.gerasimova.config;
 
-import dev.gerasimova.filter.BulkheadFilter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
@@ -12,17 +12,18 @@ import java.net.URI;
 import java.time.Duration;
 
 @Configuration
+@EnableConfigurationProperties({MicroCacheProperties.class, HedgingProperties.class})
 public class GatewayConfig {
     
     @Bean
     public RouteLocator customRouteLocator(RouteLocatorBuilder builder,
-                                           BulkheadFilter bulkheadFilter) {
+                                           ConcurrencyLimitConfig concurrencyLimitConfig) {
         return builder.routes()
             .route("library-api-v1", r -> r.path("/library/v1/books/**")
                 .and()
                 .method(HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE)
                 .filters(f -> f
-                    .filter(bulkheadFilter)
+                    .filter(concurrencyLimitConfig.filterFor("library-api-v1"))
                     .retry(config -> {
                         config.setRetries(3);
                         config.setSeries(HttpStatus.Series.SERVER_ERROR);
@@ -47,6 +48,30 @@ public class GatewayConfig {
                 )
                 .uri("lb://BOOK-SERVICE")
             )
+            .route("library-api-v1-export", r -> r.path("/library/v1/books/export")
+                .and()
+                .method(HttpMethod.GET)
+                .filters(f -> f
+                    .rewritePath("/library/v1/books/(?<segment>.*)",
+                            "/api/books/${segment}")
+                )
+                .uri("lb://BOOK-SERVICE")
+            )
+            .route("library-api-v1-read", r -> r.path("/library/v1/books/{id}", "/library/v1/books/search/**")
+                .and()
+                .method(HttpMethod.GET)
+                .and()
+                .not(p -> p.path("/library/v1/books/export"))
+                .filters(f -> f
+                    .circuitBreaker(config -> {
+                        config.setName("bookServiceBreaker");
+                        config.setFallbackUri(URI.create("forward:/fallback/book-service"));
+                    })
+                    .rewritePath("/library/v1/books/(?<segment>.*)",
+                            "/api/books/${segment}")
+                )
+                .uri("lb://BOOK-SERVICE")
+            )
             .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package dev.gerasimova.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки хеджирования GET запросов (gateway.hedging.*).
+ * Хеджируются только GET запросы маршрутов, перечисленных в routes.
+ *
+ * <pre>
+ * gateway:
+ *   hedging:
+ *     routes:
+ *       library-api-v1-read:
+ *         percentile: 0.95
+ *         max-hedge-ratio: 0.1
+ * </pre>
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "gateway.hedging")
+public class HedgingProperties {
+    /**
+     * Максимальный размер ответа хеджируемого запроса: ответ буферизуется целиком.
+     */
+    private DataSize maxBodySize = DataSize.ofMegabytes(10);
+    private Map<String, Route> routes = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class Route {
+        /**
+         * Перцентиль задержки ответа, после которого отправляется второй запрос.
+         */
+        private double percentile = 0.95;
+        /**
+         * Число последних ответов, по которым считается перцентиль.
+         */
+        private int sampleSize = 1000;
+        /**
+         * Задержка, пока ответов недостаточно для расчета перцентиля.
+         */
+        private Duration initialDelay = Duration.ofMillis(100);
+        private Duration minDelay = Duration.ofMillis(20);
+        private Duration maxDelay = Duration.ofSeconds(1);
+        /**
+         * Максимальная доля хеджированных запросов от общего числа запросов маршрута.
+         */
+        private double maxHedgeRatio = 0.1;
+        /**
+         * Общий таймаут запроса к сервису.
+         */
+        private Duration timeout = Duration.ofSeconds(10);
+    }
+}
@@ -0,0 +1,14 @@
+package dev.gerasimova.config;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Подключает балансировщик P2C EWMA для всех lb:// маршрутов вместо round-robin по умолчанию.
+ *
+ * @see P2cLoadBalancerClientConfiguration
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = P2cLoadBalancerClientConfiguration.class)
+public class LoadBalancerConfig {
+}
@@ -0,0 +1,59 @@
+package dev.gerasimova.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки микрокэша ответов GET (gateway.micro-cache.*).
+ * Кэш включается только для маршрутов, перечисленных в routes; ответы таких маршрутов
+ * не должны зависеть от пользователя (ответы с Cache-Control: private не кэшируются).
+ *
+ * <pre>
+ * gateway:
+ *   micro-cache:
+ *     routes:
+ *       book-service-api:
+ *         ttl: 2s
+ *         ignore-origin-cache-control: true
+ * </pre>
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "gateway.micro-cache")
+public class MicroCacheProperties {
+    /**
+     * Максимум ответов в кэше узла.
+     */
+    private long maxEntries = 10_000;
+    /**
+     * Ответы большего размера не кэшируются.
+     */
+    private DataSize maxBodySize = DataSize.ofKilobytes(256);
+    /**
+     * Сколько запрос ждет ответа уже выполняющегося одинакового запроса,
+     * прежде чем пойти в сервис самостоятельно.
+     */
+    private Duration coalesceTimeout = Duration.ofSeconds(2);
+    private Map<String, Route> routes = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class Route {
+        /**
+         * Максимальное время жизни ответа; Cache-Control: max-age ответа может только сократить его.
+         */
+        private Duration ttl = Duration.ofSeconds(1);
+        /**
+         * Кэшировать ответы на ttl независимо от Cache-Control сервиса, кроме private.
+         * Нужно для сервисов, которые отдают заголовки Spring Security по умолчанию
+         * (no-cache, no-store, max-age=0) на все ответы; клиенту заголовки передаются без изменений.
+         */
+        private boolean ignoreOriginCacheControl;
+    }
+}
@@ -0,0 +1,27 @@
+package dev.gerasimova.config;
+
+import dev.gerasimova.utils.InstanceLoadStats;
+import dev.gerasimova.utils.P2cEwmaLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Конфигурация дочернего контекста балансировщика каждого сервиса.
+ * Класс намеренно не помечен {@code @Configuration}: он подключается только через
+ * {@link LoadBalancerConfig} и не должен попадать в основной контекст при сканировании.
+ * Реестр нагрузки {@link InstanceLoadStats} берется из основного контекста и общий для всех сервисов.
+ */
+public class P2cLoadBalancerClientConfiguration {
+
+    @Bean
+    public ReactorServiceInstanceLoadBalancer reactorServiceInstanceLoadBalancer(Environment environment,
+                                                                                 LoadBalancerClientFactory clientFactory,
+                                                                                 InstanceLoadStats stats) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new P2cEwmaLoadBalancer(
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), serviceId, stats);
+    }
+}
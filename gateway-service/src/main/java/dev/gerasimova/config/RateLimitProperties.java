@@ -0,0 +1,56 @@
+package dev.gerasimova.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки квот запросов пользователей по маршрутам (gateway.rate-limit.*).
+ * Ограничиваются только маршруты, перечисленные в routes.
+ *
+ * <pre>
+ * gateway:
+ *   rate-limit:
+ *     sync-interval: 1s
+ *     window: 10s
+ *     routes:
+ *       book-service-api:
+ *         replenish-rate: 20
+ *         burst-capacity: 40
+ * </pre>
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+    /**
+     * Период сверки локального потребления с Redis.
+     */
+    private Duration syncInterval = Duration.ofSeconds(1);
+    /**
+     * Окно, в котором суммарное потребление всех узлов не превышает replenish-rate * window.
+     */
+    private Duration window = Duration.ofSeconds(10);
+    /**
+     * Максимум одновременно отслеживаемых пар маршрут-пользователь на узле.
+     */
+    private long maxKeys = 100_000;
+    private Map<String, Limit> routes = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class Limit {
+        /**
+         * Скорость пополнения квоты, запросов в секунду.
+         */
+        private int replenishRate = 20;
+        /**
+         * Максимальный всплеск запросов.
+         */
+        private int burstCapacity = 40;
+    }
+}
@@ -1,12 +1,14 @@
 package dev.gerasimova.config;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import reactor.core.publisher.Mono;
 @Slf4j
 @Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class RateLimiterConfig {
     @Bean
     public KeyResolver ipKeyResolver() {
@@ -16,8 +18,7 @@ public class RateLimiterConfig {
                     .getAddress()
                     .getHostAddress();
 
-            log.info("IP: " + ip);
-            log.info("Path: " + exchange.getRequest().getURI().getPath());
+            log.debug("Rate limit key: ip={}, path={}", ip, exchange.getRequest().getPath());
             if (ip == null || ip.isEmpty()) {
                 ip = "unknown";
             }
@@ -0,0 +1,25 @@
+package dev.gerasimova.dto;
+
+/**
+ * Запись access log для одного обмена запрос-ответ.
+ *
+ * @param timestampMs время завершения обработки, мс с эпохи
+ * @param method HTTP-метод
+ * @param path путь запроса без query string
+ * @param status код ответа (499 - клиент закрыл соединение)
+ * @param durationMicros длительность обработки в микросекундах
+ * @param routeId идентификатор маршрута или null, если запрос не дошел до маршрутизации
+ * @param clientIp адрес клиента
+ * @param user аутентифицированный пользователь или null
+ * @param error сообщение об ошибке или null
+ */
+public record AccessLogRecord(long timestampMs,
+                              String method,
+                              String path,
+                              int status,
+                              long durationMicros,
+                              String routeId,
+                              String clientIp,
+                              String user,
+                              String error) {
+}
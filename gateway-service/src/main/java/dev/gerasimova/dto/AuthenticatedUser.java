@@ -0,0 +1,14 @@
+package dev.gerasimova.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Проверенные данные пользователя из JWT токена.
+ *
+ * @param username имя пользователя (subject токена)
+ * @param roles роли пользователя из claim roles
+ * @param expiresAt момент истечения токена или null, если срок не задан
+ */
+public record AuthenticatedUser(String username, List<String> roles, Instant expiresAt) {
+}
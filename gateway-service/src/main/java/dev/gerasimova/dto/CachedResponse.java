@@ -0,0 +1,17 @@
+package dev.gerasimova.dto;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * Ответ сервиса, сохраненный в микрокэше шлюза.
+ *
+ * @param status статус ответа
+ * @param headers заголовки ответа без hop-by-hop заголовков
+ * @param body тело ответа
+ * @param createdNanos момент сохранения по System.nanoTime()
+ * @param ttlNanos время жизни записи
+ */
+public record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body,
+                             long createdNanos, long ttlNanos) {
+}
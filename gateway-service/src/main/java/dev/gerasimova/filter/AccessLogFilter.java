@@ -0,0 +1,115 @@
+package dev.gerasimova.filter;
+
+import dev.gerasimova.dto.AccessLogRecord;
+import dev.gerasimova.utils.AccessLogWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фильтр access log: одна структурированная запись на каждый обмен, включая ответы 401
+ * от фильтров безопасности. Время измеряется по System.nanoTime и пишется в гистограмму
+ * gateway.access.latency (теги route, method, status).
+ * Ошибки (4xx, 5xx, исключения, разрыв соединения) и медленные запросы логируются всегда,
+ * успешные - с вероятностью gateway.access-log.sample-rate.
+ *
+ * @see AccessLogWriter
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AccessLogFilter implements WebFilter {
+    private static final int CLIENT_CLOSED_REQUEST = 499;
+    private final AccessLogWriter accessLogWriter;
+    private final MeterRegistry meterRegistry;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public AccessLogFilter(AccessLogWriter accessLogWriter,
+                           MeterRegistry meterRegistry,
+                           @Value("${gateway.access-log.sample-rate:0.01}") double sampleRate,
+                           @Value("${gateway.access-log.slow-threshold:1s}") Duration slowThreshold) {
+        this.accessLogWriter = accessLogWriter;
+        this.meterRegistry = meterRegistry;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @NonNull
+    @Override
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doOnSuccess(ignored -> complete(exchange, start, statusOf(exchange, 200), null))
+                .doOnError(error -> complete(exchange, start, statusOf(exchange, 500), error.toString()))
+                .doOnCancel(() -> complete(exchange, start, CLIENT_CLOSED_REQUEST, null));
+    }
+
+    private void complete(ServerWebExchange exchange, long start, int status, String error) {
+        long durationNanos = System.nanoTime() - start;
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : null;
+
+        TimerKey timerKey = new TimerKey(routeId != null ? routeId : "none", request.getMethod().name(), status / 100);
+        timers.computeIfAbsent(timerKey, this::registerTimer).record(durationNanos, TimeUnit.NANOSECONDS);
+
+        boolean alwaysLog = status >= 400 || error != null || durationNanos >= slowThresholdNanos;
+        if (!alwaysLog && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        String clientIp = remoteAddress != null && remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : null;
+        accessLogWriter.submit(new AccessLogRecord(
+                System.currentTimeMillis(),
+                request.getMethod().name(),
+                request.getPath().value(),
+                status,
+                TimeUnit.NANOSECONDS.toMicros(durationNanos),
+                routeId,
+                clientIp,
+                exchange.getAttribute(JwtTokenFilter.AUTHENTICATED_USER_ATTR),
+                error));
+    }
+
+    private Timer registerTimer(TimerKey key) {
+        return Timer.builder("gateway.access.latency")
+                .tag("route", key.route())
+                .tag("method", key.method())
+                .tag("status", key.statusClass() + "xx")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static int statusOf(ServerWebExchange exchange, int defaultStatus) {
+        HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+        return statusCode != null ? statusCode.value() : defaultStatus;
+    }
+
+    /**
+     * Набор тегов гистограммы задержки; таймер регистрируется один раз на набор.
+     */
+    private record TimerKey(String route, String method, int statusClass) {
+    }
+}
@@ -0,0 +1,35 @@
+package dev.gerasimova.filter;
+
+import dev.gerasimova.utils.ReactiveConcurrencyLimiter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Фильтр маршрута, ограничивающий число одновременных запросов к сервису.
+ * Запрос выполняется в том же потоке event loop, слот освобождается при любом
+ * завершении (успех, ошибка, отмена). Отклоненные запросы получают 429.
+ *
+ * @see ReactiveConcurrencyLimiter
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ConcurrencyLimitFilter implements GatewayFilter {
+    private final ReactiveConcurrencyLimiter limiter;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return limiter.acquire().flatMap(acquired -> {
+            if (!acquired) {
+                log.debug("Превышен лимит одновременных запросов для пути: {}", exchange.getRequest().getPath());
+                exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                return exchange.getResponse().setComplete();
+            }
+            return chain.filter(exchange).doFinally(signal -> limiter.release());
+        });
+    }
+}
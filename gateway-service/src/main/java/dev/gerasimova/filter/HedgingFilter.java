@@ -0,0 +1,255 @@
+package dev.gerasimova.filter;
+
+import dev.gerasimova.config.HedgingProperties;
+import dev.gerasimova.utils.HedgeBudget;
+import dev.gerasimova.utils.InstanceLoad;
+import dev.gerasimova.utils.InstanceLoadStats;
+import dev.gerasimova.utils.LatencyWindow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Хеджирование GET запросов для маршрутов из gateway.hedging.routes.
+ * Запрос отправляется в экземпляр, выбранный балансировщиком; если ответа нет дольше
+ * перцентиля задержки маршрута (по умолчанию p95), тот же запрос отправляется в другой
+ * экземпляр сервиса. Клиент получает первый ответ, второй запрос отменяется.
+ * Доля хеджированных запросов ограничена {@link HedgeBudget}.
+ * Порог считается по задержкам первого запроса, в том числе проигравшего (до момента отмены),
+ * чтобы выигрыши хеджей не срезали хвост распределения и не снижали порог.
+ * Хеджи учитываются в нагрузке экземпляров {@link InstanceLoadStats}, как и запросы балансировщика.
+ * Ответ хеджируемого запроса буферизуется целиком, поэтому фильтр подходит только для небольших ответов:
+ * потоковые выгрузки не должны попадать в хеджируемые маршруты.
+ *
+ * @see LatencyWindow
+ */
+@Slf4j
+@Component
+public class HedgingFilter implements GlobalFilter, Ordered {
+    private final HedgingProperties properties;
+    private final ReactiveDiscoveryClient discoveryClient;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFilters;
+    private final MeterRegistry meterRegistry;
+    private final InstanceLoadStats loadStats;
+    private final WebClient webClient;
+    private final Map<String, RouteHedging> routes = new ConcurrentHashMap<>();
+    private final Map<CounterKey, Counter> counters = new ConcurrentHashMap<>();
+
+    public HedgingFilter(HedgingProperties properties,
+                         ReactiveDiscoveryClient discoveryClient,
+                         ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                         MeterRegistry meterRegistry,
+                         InstanceLoadStats loadStats,
+                         WebClient.Builder webClientBuilder) {
+        this.properties = properties;
+        this.discoveryClient = discoveryClient;
+        this.headersFilters = headersFilters;
+        this.meterRegistry = meterRegistry;
+        this.loadStats = loadStats;
+        this.webClient = webClientBuilder
+                .codecs(codecs -> codecs.defaultCodecs()
+                        .maxInMemorySize((int) properties.getMaxBodySize().toBytes()))
+                .build();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        URI url = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        if (route == null || url == null || exchange.getRequest().getMethod() != HttpMethod.GET
+                || !"lb".equals(route.getUri().getScheme())
+                || ServerWebExchangeUtils.isAlreadyRouted(exchange)) {
+            return chain.filter(exchange);
+        }
+        HedgingProperties.Route settings = properties.getRoutes().get(route.getId());
+        if (settings == null) {
+            return chain.filter(exchange);
+        }
+        RouteHedging hedging = routes.computeIfAbsent(route.getId(), id -> new RouteHedging(settings));
+        hedging.budget().onRequest();
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+
+        HttpHeaders headers = requestHeaders(exchange);
+        long startNanos = System.nanoTime();
+        Mono<Attempt> primary = send(url, headers)
+                .doOnSuccess(response -> hedging.latency().record(System.nanoTime() - startNanos))
+                .doOnCancel(() -> hedging.latency().record(System.nanoTime() - startNanos))
+                .map(response -> new Attempt(response, false));
+        Mono<Attempt> hedge = Mono.delay(Duration.ofNanos(hedging.delayNanos()))
+                .flatMap(tick -> alternateUrl(route.getUri().getHost(), url))
+                .filter(alternate -> {
+                    if (hedging.budget().tryAcquire()) {
+                        return true;
+                    }
+                    count(route, "budget_exhausted");
+                    return false;
+                })
+                .flatMap(alternate -> {
+                    log.debug("Нет ответа за {} мс, хеджируем запрос в {}",
+                            Duration.ofNanos(hedging.delayNanos()).toMillis(), alternate.url().getAuthority());
+                    count(route, "sent");
+                    return sendTracked(alternate, headers);
+                })
+                .map(response -> new Attempt(response, true));
+
+        return Mono.firstWithValue(primary, hedge)
+                .onErrorMap(NoSuchElementException.class,
+                        e -> e.getSuppressed().length > 0 ? e.getSuppressed()[0] : e)
+                .timeout(settings.getTimeout())
+                .onErrorMap(TimeoutException.class,
+                        e -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, e.getMessage(), e))
+                .flatMap(attempt -> {
+                    count(route, attempt.hedged() ? "hedge_won" : "primary_won");
+                    return write(exchange, attempt.response());
+                });
+    }
+
+    /**
+     * Выполняется после выбора экземпляра балансировщиком и учета нагрузки {@link InstanceLoadFilter},
+     * до NettyRoutingFilter.
+     */
+    @Override
+    public int getOrder() {
+        return InstanceLoadFilter.ORDER + 1;
+    }
+
+    private Mono<ResponseEntity<byte[]>> send(URI url, HttpHeaders headers) {
+        return webClient.get()
+                .uri(url)
+                .headers(target -> target.addAll(headers))
+                .exchangeToMono(response -> response.toEntity(byte[].class));
+    }
+
+    /**
+     * Отправляет хедж с учетом в нагрузке экземпляра: ошибки и 5xx учитываются со штрафом,
+     * проигравший и отмененный хедж только освобождает счетчик выполняющихся запросов.
+     */
+    private Mono<ResponseEntity<byte[]>> sendTracked(Alternate alternate, HttpHeaders headers) {
+        InstanceLoad load = loadStats.forInstance(alternate.instance());
+        return Mono.defer(() -> {
+            load.onStart();
+            long startNanos = System.nanoTime();
+            return send(alternate.url(), headers)
+                    .doOnSuccess(response -> {
+                        long latencyNanos = System.nanoTime() - startNanos;
+                        load.onComplete(response.getStatusCode().is5xxServerError()
+                                ? Math.max(latencyNanos, loadStats.failurePenaltyNanos())
+                                : latencyNanos);
+                    })
+                    .doOnError(e -> load.onComplete(
+                            Math.max(System.nanoTime() - startNanos, loadStats.failurePenaltyNanos())))
+                    .doOnCancel(load::onDiscard);
+        });
+    }
+
+    /**
+     * Выбирает случайный экземпляр сервиса, отличный от экземпляра первого запроса.
+     */
+    private Mono<Alternate> alternateUrl(String serviceId, URI primary) {
+        return discoveryClient.getInstances(serviceId)
+                .filter(instance -> !(instance.getHost().equals(primary.getHost())
+                        && instance.getPort() == primary.getPort()))
+                .collectList()
+                .flatMap(instances -> {
+                    if (instances.isEmpty()) {
+                        return Mono.empty();
+                    }
+                    ServiceInstance instance = instances.get(ThreadLocalRandom.current().nextInt(instances.size()));
+                    return Mono.just(new Alternate(instance, UriComponentsBuilder.fromUri(primary)
+                            .scheme(instance.isSecure() ? "https" : "http")
+                            .host(instance.getHost())
+                            .port(instance.getPort())
+                            .build(true)
+                            .toUri()));
+                });
+    }
+
+    private HttpHeaders requestHeaders(ServerWebExchange exchange) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(HttpHeadersFilter.filterRequest(headersFilters.getIfAvailable(List::of), exchange));
+        if (!Boolean.TRUE.equals(exchange.getAttribute(ServerWebExchangeUtils.PRESERVE_HOST_HEADER_ATTRIBUTE))) {
+            headers.remove(HttpHeaders.HOST);
+        }
+        return headers;
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, ResponseEntity<byte[]> upstream) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(upstream.getStatusCode());
+        response.getHeaders().putAll(HttpHeadersFilter.filter(headersFilters.getIfAvailable(List::of),
+                upstream.getHeaders(), exchange, HttpHeadersFilter.Type.RESPONSE));
+        response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        byte[] body = upstream.getBody();
+        if (body == null) {
+            return response.setComplete();
+        }
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private void count(Route route, String outcome) {
+        counters.computeIfAbsent(new CounterKey(route.getId(), outcome), this::registerCounter).increment();
+    }
+
+    private Counter registerCounter(CounterKey key) {
+        return Counter.builder("gateway.hedge.requests")
+                .tag("route", key.route())
+                .tag("outcome", key.outcome())
+                .register(meterRegistry);
+    }
+
+    private record Attempt(ResponseEntity<byte[]> response, boolean hedged) {
+    }
+
+    private record Alternate(ServiceInstance instance, URI url) {
+    }
+
+    private record CounterKey(String route, String outcome) {
+    }
+
+    /**
+     * Состояние хеджирования маршрута: окно задержек и бюджет дополнительных запросов.
+     */
+    private record RouteHedging(LatencyWindow latency, HedgeBudget budget, long minDelayNanos, long maxDelayNanos) {
+        RouteHedging(HedgingProperties.Route settings) {
+            this(new LatencyWindow(settings.getSampleSize(), settings.getPercentile(),
+                            settings.getInitialDelay().toNanos()),
+                    new HedgeBudget(settings.getMaxHedgeRatio()),
+                    settings.getMinDelay().toNanos(),
+                    settings.getMaxDelay().toNanos());
+        }
+
+        long delayNanos() {
+            return Math.max(minDelayNanos, Math.min(maxDelayNanos, latency.percentileNanos()));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package dev.gerasimova.filter;
+
+import dev.gerasimova.utils.InstanceLoad;
+import dev.gerasimova.utils.InstanceLoadStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Учитывает выполняющиеся запросы к экземплярам, выбранным балансировщиком, для
+ * {@link dev.gerasimova.utils.P2cEwmaLoadBalancer}.
+ * Учет в фильтре, а не в LoadBalancerLifecycle: ReactiveLoadBalancerClientFilter не вызывает
+ * lifecycle при отмене, и отключение клиента или таймаут circuit breaker навсегда оставляли бы
+ * запрос выполняющимся. Неуспешные запросы и ответы 5xx учитываются с задержкой не меньше штрафа,
+ * чтобы быстро отвечающий ошибками экземпляр не выглядел лучшим; отмененный запрос
+ * только освобождает счетчик.
+ *
+ * @see InstanceLoadStats
+ */
+@Component
+@RequiredArgsConstructor
+public class InstanceLoadFilter implements GlobalFilter, Ordered {
+    public static final int ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+
+    private final InstanceLoadStats stats;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> lbResponse =
+                exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return chain.filter(exchange);
+        }
+        InstanceLoad load = stats.forInstance(lbResponse.getServer());
+        return Mono.defer(() -> {
+            load.onStart();
+            long startNanos = System.nanoTime();
+            return chain.filter(exchange).doFinally(signal -> {
+                if (signal == SignalType.CANCEL) {
+                    load.onDiscard();
+                    return;
+                }
+                long latencyNanos = System.nanoTime() - startNanos;
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                boolean failed = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+                load.onComplete(failed ? Math.max(latencyNanos, stats.failurePenaltyNanos()) : latencyNanos);
+            });
+        });
+    }
+
+    /**
+     * Выполняется сразу после выбора экземпляра балансировщиком.
+     */
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -1,5 +1,7 @@
 package dev.gerasimova.filter;
 
+import dev.gerasimova.dto.AuthenticatedUser;
+import dev.gerasimova.utils.InternalAuthHeaders;
 import dev.gerasimova.utils.JwtTokenProvider;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
@@ -12,7 +14,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextImpl;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.server.ServerWebExchange;
@@ -24,48 +26,54 @@ import reactor.core.publisher.Mono;
 @Component
 @RequiredArgsConstructor
 public class JwtTokenFilter implements WebFilter {
+    public static final String AUTHENTICATED_USER_ATTR = JwtTokenFilter.class.getName() + ".user";
     @Value("${jwt.header}")
     private String AUTH_HEADER;
     @Value("${jwt.basic-token-prefix}")
     private String BASIC_TOKEN_PREFIX;
     private final JwtTokenProvider jwtTokenProvider;
+    private final InternalAuthHeaders internalAuthHeaders;
     @NonNull
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, @NonNull WebFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
-        String path = exchange.getRequest().getURI().getPath();
-
-        String method = request.getMethod().name();
-        log.info("Gateway запрос: {} {}", method, path);
+        String path = request.getPath().value();
 
         if (isPublicEndpoint(path)) {
             log.debug("Публичный endpoint, пропускаем проверку: {}", path);
-            return chain.filter(exchange);
+            return chain.filter(withoutInternalHeaders(exchange));
         }
         String token = extractTokenFromRequest(request);
-        if (token == null || !jwtTokenProvider.validateToken(token)) {
+        AuthenticatedUser user = jwtTokenProvider.authenticate(token);
+        if (user == null) {
             exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
             return exchange.getResponse().setComplete();
         }
+        log.debug("Аутентифицирован пользователь: {} для: {}", user.username(), path);
+        exchange.getAttributes().put(AUTHENTICATED_USER_ATTR, user.username());
 
-        try {
-            UserDetails userDetails = jwtTokenProvider.getUserDetails(token);
-            log.debug("Аутентифицирован пользователь: {} для: {}", userDetails.getUsername(), path);
-
-            Authentication authentication = new UsernamePasswordAuthenticationToken(
-                    userDetails.getUsername(), null, userDetails.getAuthorities()
-            );
-            SecurityContext securityContext = new SecurityContextImpl(authentication);
-            return chain.filter(exchange)
-                    .contextWrite(ReactiveSecurityContextHolder.withSecurityContext(
-                            Mono.just(securityContext)
-                    ));
-
-        } catch (Exception e) {
-            log.error("Ошибка аутентификации для {}: {}", path, e.getMessage(), e);
-            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-            return exchange.getResponse().setComplete();
-        }
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                user.username(), null, AuthorityUtils.createAuthorityList(user.roles())
+        );
+        SecurityContext securityContext = new SecurityContextImpl(authentication);
+        ServerWebExchange authenticatedExchange = exchange.mutate()
+                .request(builder -> builder.headers(headers -> {
+                    internalAuthHeaders.strip(headers);
+                    internalAuthHeaders.apply(headers, user);
+                }))
+                .build();
+        return chain.filter(authenticatedExchange)
+                .contextWrite(ReactiveSecurityContextHolder.withSecurityContext(
+                        Mono.just(securityContext)
+                ));
+    }
+    /**
+     * Удаляет из запроса внутренние заголовки аутентификации, чтобы клиент не мог их подделать.
+     */
+    private ServerWebExchange withoutInternalHeaders(ServerWebExchange exchange) {
+        return exchange.mutate()
+                .request(builder -> builder.headers(internalAuthHeaders::strip))
+                .build();
     }
     /**
      * Извлекает JWT токен из заголовка Authorization.
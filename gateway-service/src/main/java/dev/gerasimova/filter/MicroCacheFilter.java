@@ -0,0 +1,278 @@
+package dev.gerasimova.filter;
+
+import dev.gerasimova.config.MicroCacheProperties;
+import dev.gerasimova.dto.CachedResponse;
+import dev.gerasimova.utils.MicroCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.publisher.SignalType;
+
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Микрокэш ответов GET для маршрутов из gateway.micro-cache.routes.
+ * Кэшируются только ответы 200 без Set-Cookie, время жизни - меньшее из ttl маршрута
+ * и max-age/s-maxage ответа; ответы с no-store, no-cache или private не кэшируются.
+ * Для маршрута с ignore-origin-cache-control Cache-Control ответа учитывается только
+ * в части private, время жизни равно ttl маршрута.
+ * Запрос с Cache-Control: no-cache (или Pragma: no-cache) идет в сервис мимо кэша.
+ * Одинаковые одновременные запросы объединяются в один запрос к сервису.
+ *
+ * @see MicroCache
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MicroCacheFilter implements GlobalFilter, Ordered {
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+    private static final byte[] EMPTY_BODY = new byte[0];
+    private static final Set<String> NOT_CACHED_HEADERS = Set.of(
+            HttpHeaders.CONNECTION.toLowerCase(Locale.ROOT),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(Locale.ROOT),
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(Locale.ROOT),
+            HttpHeaders.UPGRADE.toLowerCase(Locale.ROOT),
+            HttpHeaders.TRAILER.toLowerCase(Locale.ROOT),
+            HttpHeaders.TE.toLowerCase(Locale.ROOT),
+            "keep-alive");
+
+    private final MicroCache microCache;
+    private final MeterRegistry meterRegistry;
+    private final Map<CounterKey, Counter> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        ServerHttpRequest request = exchange.getRequest();
+        if (route == null || request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+        MicroCacheProperties.Route settings = microCache.routeSettings(route.getId());
+        if (settings == null) {
+            return chain.filter(exchange);
+        }
+        if (bypassesCache(request)) {
+            count(route, "bypass");
+            return chain.filter(exchange);
+        }
+
+        String key = keyOf(route, request);
+        CachedResponse cached = microCache.get(key);
+        if (cached != null) {
+            count(route, "hit");
+            return writeCached(exchange, cached);
+        }
+        Sinks.One<Optional<CachedResponse>> sink = microCache.lead(key);
+        if (sink == null) {
+            return microCache.follow(key).flatMap(result -> {
+                if (result.isPresent()) {
+                    count(route, "coalesced");
+                    return writeCached(exchange, result.get());
+                }
+                count(route, "miss");
+                return chain.filter(exchange);
+            });
+        }
+
+        count(route, "miss");
+        CapturingResponse response = new CapturingResponse(exchange.getResponse(), settings.getTtl().toNanos(),
+                settings.isIgnoreOriginCacheControl(), microCache.maxBodySize());
+        return chain.filter(exchange.mutate().response(response).build())
+                .doFinally(signal -> microCache.complete(key, sink,
+                        signal == SignalType.ON_COMPLETE ? response.captured : null));
+    }
+
+    /**
+     * Выполняется после проверки квот, но до фильтров маршрута и записи ответа (NettyWriteResponseFilter),
+     * чтобы попадание в кэш не занимало слоты ограничителя параллелизма.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 200;
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(cached.status());
+        HttpHeaders headers = response.getHeaders();
+        cached.headers().forEach((name, values) -> headers.put(name, new ArrayList<>(values)));
+        headers.setContentLength(cached.body().length);
+        headers.set(HttpHeaders.AGE, Long.toString(
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - cached.createdNanos())));
+        headers.set(CACHE_STATUS_HEADER, "HIT");
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private void count(Route route, String result) {
+        counters.computeIfAbsent(new CounterKey(route.getId(), result), this::registerCounter).increment();
+    }
+
+    private Counter registerCounter(CounterKey key) {
+        return Counter.builder("gateway.microcache.requests")
+                .tag("route", key.route())
+                .tag("result", key.result())
+                .register(meterRegistry);
+    }
+
+    private static boolean bypassesCache(ServerHttpRequest request) {
+        String cacheControl = request.getHeaders().getCacheControl();
+        if (cacheControl != null) {
+            String value = cacheControl.toLowerCase(Locale.ROOT);
+            if (value.contains("no-cache") || value.contains("no-store")) {
+                return true;
+            }
+        }
+        return "no-cache".equalsIgnoreCase(request.getHeaders().getFirst(HttpHeaders.PRAGMA));
+    }
+
+    /**
+     * Ключ учитывает Accept и Accept-Encoding, чтобы клиент не получил ответ в чужом формате или сжатии.
+     */
+    private static String keyOf(Route route, ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        StringBuilder key = new StringBuilder(route.getId()).append(' ')
+                .append(request.getURI().getRawPath());
+        String query = request.getURI().getRawQuery();
+        if (query != null) {
+            key.append('?').append(query);
+        }
+        return key.append('|').append(headers.getFirst(HttpHeaders.ACCEPT))
+                .append('|').append(headers.getFirst(HttpHeaders.ACCEPT_ENCODING))
+                .toString();
+    }
+
+    private record CounterKey(String route, String result) {
+    }
+
+    /**
+     * Пропускает ответ ведущего запроса клиенту и сохраняет копию, если ответ кэшируемый.
+     * Тело без Content-Length накапливается только до max-body-size: после превышения
+     * накопленная часть и остаток ответа передаются клиенту потоком без кэширования.
+     */
+    private static final class CapturingResponse extends ServerHttpResponseDecorator {
+        private final long routeTtlNanos;
+        private final boolean ignoreOriginCacheControl;
+        private final long maxBodySize;
+        private volatile CachedResponse captured;
+
+        CapturingResponse(ServerHttpResponse delegate, long routeTtlNanos,
+                          boolean ignoreOriginCacheControl, long maxBodySize) {
+            super(delegate);
+            this.routeTtlNanos = routeTtlNanos;
+            this.ignoreOriginCacheControl = ignoreOriginCacheControl;
+            this.maxBodySize = maxBodySize;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            long ttlNanos = cacheableTtlNanos();
+            if (ttlNanos <= 0) {
+                return super.writeWith(body);
+            }
+            AtomicLong size = new AtomicLong();
+            Flux<DataBuffer> passed = Flux.from(body)
+                    .bufferUntil(buffer -> size.addAndGet(buffer.readableByteCount()) > maxBodySize)
+                    .concatMap(chunk -> {
+                        if (size.get() > maxBodySize) {
+                            return Flux.fromIterable(chunk);
+                        }
+                        DataBuffer joined = bufferFactory().join(chunk);
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        captured = new CachedResponse(getStatusCode(), cachedHeaders(),
+                                bytes, System.nanoTime(), ttlNanos);
+                        return Flux.just(bufferFactory().wrap(bytes));
+                    })
+                    .switchIfEmpty(Flux.defer(() -> {
+                        captured = new CachedResponse(getStatusCode(), cachedHeaders(),
+                                EMPTY_BODY, System.nanoTime(), ttlNanos);
+                        return Flux.empty();
+                    }))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+            return super.writeWith(passed);
+        }
+
+        /**
+         * @return время жизни ответа в кэше или 0, если ответ кэшировать нельзя
+         */
+        private long cacheableTtlNanos() {
+            HttpHeaders headers = getHeaders();
+            HttpStatusCode status = getStatusCode();
+            if (status == null || status.value() != HttpStatus.OK.value()
+                    || headers.containsKey(HttpHeaders.SET_COOKIE)
+                    || headers.getVary().contains("*")
+                    || headers.getContentLength() > maxBodySize) {
+                return 0;
+            }
+            String cacheControl = headers.getCacheControl();
+            if (cacheControl == null) {
+                return routeTtlNanos;
+            }
+            Long maxAge = null;
+            Long sharedMaxAge = null;
+            try {
+                for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+                    String value = directive.trim();
+                    if (value.startsWith("private")) {
+                        return 0;
+                    }
+                    if (ignoreOriginCacheControl) {
+                        continue;
+                    }
+                    if (value.equals("no-store") || value.equals("no-cache")) {
+                        return 0;
+                    }
+                    if (value.startsWith("s-maxage=")) {
+                        sharedMaxAge = Long.parseLong(value.substring("s-maxage=".length()));
+                    } else if (value.startsWith("max-age=")) {
+                        maxAge = Long.parseLong(value.substring("max-age=".length()));
+                    }
+                }
+            } catch (NumberFormatException e) {
+                log.debug("Некорректный Cache-Control ответа, ответ не кэшируется: {}", cacheControl);
+                return 0;
+            }
+            Long limit = sharedMaxAge != null ? sharedMaxAge : maxAge;
+            return limit != null ? Math.min(routeTtlNanos, TimeUnit.SECONDS.toNanos(limit)) : routeTtlNanos;
+        }
+
+        private HttpHeaders cachedHeaders() {
+            HttpHeaders copy = new HttpHeaders();
+            getHeaders().forEach((name, values) -> {
+                if (!NOT_CACHED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    copy.put(name, new ArrayList<>(values));
+                }
+            });
+            return copy;
+        }
+    }
+}
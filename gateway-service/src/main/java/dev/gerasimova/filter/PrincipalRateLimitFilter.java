@@ -0,0 +1,87 @@
+package dev.gerasimova.filter;
+
+import dev.gerasimova.utils.PrincipalRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Применяет квоты пользователей к маршрутам из gateway.rate-limit.routes (и к маршрутам из YAML,
+ * и к маршрутам Java DSL). Ключ квоты - subject JWT, проверенный {@link JwtTokenFilter};
+ * для запросов без пользователя используется IP клиента. Превышение квоты возвращает 429.
+ *
+ * @see PrincipalRateLimiter
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PrincipalRateLimitFilter implements GlobalFilter, Ordered {
+    private final PrincipalRateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteCounters> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null || !rateLimiter.isLimited(route.getId())) {
+            return chain.filter(exchange);
+        }
+        boolean allowed = rateLimiter.tryAcquire(route.getId(), principalOf(exchange));
+        RouteCounters routeCounters = counters.computeIfAbsent(route.getId(), this::registerCounters);
+        (allowed ? routeCounters.allowed() : routeCounters.rejected()).increment();
+        if (allowed) {
+            return chain.filter(exchange);
+        }
+        log.debug("Превышена квота пользователя на маршруте {}: {}", route.getId(), exchange.getRequest().getPath());
+        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        return exchange.getResponse().setComplete();
+    }
+
+    /**
+     * Выполняется до фильтров маршрута, чтобы отклоненный запрос не занимал слоты ограничителя параллелизма.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 100;
+    }
+
+    private RouteCounters registerCounters(String routeId) {
+        return new RouteCounters(requestCounter(routeId, "allowed"), requestCounter(routeId, "rejected"));
+    }
+
+    private Counter requestCounter(String routeId, String result) {
+        return Counter.builder("gateway.ratelimit.requests")
+                .tag("route", routeId)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static String principalOf(ServerWebExchange exchange) {
+        String username = exchange.getAttribute(JwtTokenFilter.AUTHENTICATED_USER_ATTR);
+        if (username != null) {
+            return "user:" + username;
+        }
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        return "ip:" + (remoteAddress != null ? remoteAddress.getHostString() : "unknown");
+    }
+
+    /**
+     * Счетчики решений по маршруту, регистрируются один раз.
+     */
+    private record RouteCounters(Counter allowed, Counter rejected) {
+    }
+}
@@ -0,0 +1,65 @@
+package dev.gerasimova.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ограниченный lock-free кольцевой буфер: много производителей (потоки event loop), один потребитель.
+ * Производитель захватывает слот CAS-ом по счетчику tail и публикует элемент записью в слот,
+ * потребитель читает слоты по порядку и освобождает их. При заполнении буфера offer
+ * сразу возвращает false, поток event loop никогда не ждет.
+ *
+ * @param <T> тип элементов
+ */
+public class AccessLogRingBuffer<T> {
+    private final AtomicReferenceArray<T> slots;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param requestedCapacity желаемый размер, округляется вверх до степени двойки
+     */
+    public AccessLogRingBuffer(int requestedCapacity) {
+        int size = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.capacity = size;
+        this.mask = size - 1;
+    }
+
+    /**
+     * Добавляет элемент, если есть свободный слот.
+     *
+     * @param element элемент, не null
+     * @return false, если буфер заполнен
+     */
+    public boolean offer(T element) {
+        long claimed;
+        do {
+            claimed = tail.get();
+            if (claimed - head.get() >= capacity) {
+                return false;
+            }
+        } while (!tail.compareAndSet(claimed, claimed + 1));
+        slots.lazySet((int) claimed & mask, element);
+        return true;
+    }
+
+    /**
+     * Забирает следующий элемент. Вызывается только из потока потребителя.
+     *
+     * @return элемент или null, если буфер пуст или следующий элемент еще не опубликован
+     */
+    public T poll() {
+        long current = head.get();
+        int index = (int) current & mask;
+        T element = slots.get(index);
+        if (element == null) {
+            return null;
+        }
+        slots.lazySet(index, null);
+        head.lazySet(current + 1);
+        return element;
+    }
+}
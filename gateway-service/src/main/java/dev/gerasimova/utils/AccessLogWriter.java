@@ -0,0 +1,136 @@
+package dev.gerasimova.utils;
+
+import dev.gerasimova.dto.AccessLogRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Асинхронная запись access log.
+ * Потоки event loop только кладут записи в lock-free кольцевой буфер,
+ * форматирование в JSON и запись в логгер ACCESS_LOG выполняет отдельный фоновый поток.
+ * При переполнении буфера запись отбрасывается и учитывается в метрике gateway.access.log.dropped.
+ *
+ * @see AccessLogRingBuffer
+ */
+@Slf4j
+@Component
+public class AccessLogWriter {
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("ACCESS_LOG");
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private final AccessLogRingBuffer<AccessLogRecord> buffer;
+    private final Counter droppedCounter;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    public AccessLogWriter(@Value("${gateway.access-log.buffer-size:8192}") int bufferSize,
+                           MeterRegistry meterRegistry) {
+        this.buffer = new AccessLogRingBuffer<>(bufferSize);
+        this.droppedCounter = Counter.builder("gateway.access.log.dropped").register(meterRegistry);
+        this.worker = new Thread(this::drainLoop, "access-log-writer");
+        this.worker.setDaemon(true);
+    }
+
+    @PostConstruct
+    void start() {
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(worker);
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Ставит запись в очередь на запись. Никогда не блокирует вызывающий поток.
+     *
+     * @param record запись access log
+     */
+    public void submit(AccessLogRecord record) {
+        if (!buffer.offer(record)) {
+            droppedCounter.increment();
+        }
+    }
+
+    private void drainLoop() {
+        while (running) {
+            if (!drainAvailable()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        drainAvailable();
+    }
+
+    private boolean drainAvailable() {
+        boolean drained = false;
+        AccessLogRecord record;
+        while ((record = buffer.poll()) != null) {
+            drained = true;
+            try {
+                ACCESS_LOG.info(toJson(record));
+            } catch (Exception e) {
+                log.warn("Не удалось записать access log: {}", e.getMessage());
+            }
+        }
+        return drained;
+    }
+
+    private static String toJson(AccessLogRecord record) {
+        StringBuilder json = new StringBuilder(256)
+                .append("{\"ts\":").append(record.timestampMs())
+                .append(",\"method\":");
+        appendString(json, record.method());
+        json.append(",\"path\":");
+        appendString(json, record.path());
+        json.append(",\"status\":").append(record.status())
+                .append(",\"durationUs\":").append(record.durationMicros())
+                .append(",\"route\":");
+        appendString(json, record.routeId());
+        json.append(",\"ip\":");
+        appendString(json, record.clientIp());
+        json.append(",\"user\":");
+        appendString(json, record.user());
+        if (record.error() != null) {
+            json.append(",\"error\":");
+            appendString(json, record.error());
+        }
+        return json.append('}').toString();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
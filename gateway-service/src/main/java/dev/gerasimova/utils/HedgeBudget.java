@@ -0,0 +1,45 @@
+package dev.gerasimova.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Бюджет хеджированных запросов: каждый запрос маршрута добавляет ratio кредита,
+ * каждый дополнительный запрос расходует один кредит. Доля дополнительных запросов
+ * не превышает ratio от трафика, поэтому при деградации сервиса хеджирование не умножает нагрузку.
+ */
+public class HedgeBudget {
+    private static final long CREDIT = 1000;
+    private static final long MAX_CREDITS = 10 * CREDIT;
+    private final long creditPerRequest;
+    private final AtomicLong credits = new AtomicLong();
+
+    /**
+     * @param maxHedgeRatio максимальная доля хеджированных запросов, от 0 до 1
+     */
+    public HedgeBudget(double maxHedgeRatio) {
+        this.creditPerRequest = Math.round(maxHedgeRatio * CREDIT);
+    }
+
+    /**
+     * Учитывает запрос маршрута.
+     */
+    public void onRequest() {
+        credits.updateAndGet(current -> Math.min(MAX_CREDITS, current + creditPerRequest));
+    }
+
+    /**
+     * Забирает кредит на дополнительный запрос.
+     *
+     * @return true, если бюджет позволяет хеджировать запрос
+     */
+    public boolean tryAcquire() {
+        long current;
+        do {
+            current = credits.get();
+            if (current < CREDIT) {
+                return false;
+            }
+        } while (!credits.compareAndSet(current, current - CREDIT));
+        return true;
+    }
+}
@@ -0,0 +1,87 @@
+package dev.gerasimova.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Нагрузка экземпляра сервиса: число выполняющихся запросов и peak EWMA задержки ответа.
+ * Задержка больше текущей оценки принимается сразу (peak), меньшая - сглаживается
+ * с весом, зависящим от времени с прошлого замера. Без новых замеров оценка затухает,
+ * поэтому экземпляр, который был медленным, со временем снова получает пробные запросы.
+ */
+public class InstanceLoad {
+    private static final double MIN_COST_NANOS = 1_000;
+    private final double decayNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private double costNanos;
+    private long stampNanos;
+
+    /**
+     * @param decayNanos постоянная времени затухания EWMA
+     * @param initialCostNanos оценка задержки нового экземпляра
+     */
+    public InstanceLoad(long decayNanos, long initialCostNanos) {
+        this(decayNanos, initialCostNanos, System::nanoTime);
+    }
+
+    InstanceLoad(long decayNanos, long initialCostNanos, LongSupplier nanoClock) {
+        this.decayNanos = decayNanos;
+        this.nanoClock = nanoClock;
+        this.costNanos = initialCostNanos;
+        this.stampNanos = nanoClock.getAsLong();
+    }
+
+    public void onStart() {
+        outstanding.incrementAndGet();
+    }
+
+    /**
+     * Учитывает завершение запроса.
+     *
+     * @param latencyNanos задержка ответа (для ошибок - со штрафом)
+     */
+    public void onComplete(long latencyNanos) {
+        outstanding.decrementAndGet();
+        observe(latencyNanos);
+    }
+
+    /**
+     * Учитывает отмененный запрос (отключение клиента, таймаут, проигравший хедж):
+     * его задержка неизвестна, поэтому EWMA не меняется.
+     */
+    public void onDiscard() {
+        outstanding.decrementAndGet();
+    }
+
+    /**
+     * @return оценка нагрузки: EWMA задержки, умноженная на число выполняющихся запросов плюс один
+     */
+    public double score() {
+        return Math.max(MIN_COST_NANOS, latencyEwmaNanos()) * (Math.max(0, outstanding.get()) + 1);
+    }
+
+    public int outstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * @return текущая оценка задержки с учетом затухания
+     */
+    public synchronized double latencyEwmaNanos() {
+        observe(0);
+        return costNanos;
+    }
+
+    private synchronized void observe(double latencyNanos) {
+        long now = nanoClock.getAsLong();
+        double elapsed = Math.max(0, now - stampNanos);
+        stampNanos = now;
+        if (latencyNanos > costNanos) {
+            costNanos = latencyNanos;
+        } else {
+            double weight = Math.exp(-elapsed / decayNanos);
+            costNanos = costNanos * weight + latencyNanos * (1 - weight);
+        }
+    }
+}
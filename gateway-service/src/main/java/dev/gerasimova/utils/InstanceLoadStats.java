@@ -0,0 +1,80 @@
+package dev.gerasimova.utils;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Реестр нагрузки экземпляров сервисов, общий для балансировщиков всех сервисов.
+ * Для каждого экземпляра публикует метрики gateway.lb.instance.score, .outstanding
+ * и .latency.ewma с тегами service и instance.
+ *
+ * @see P2cEwmaLoadBalancer
+ * @see dev.gerasimova.filter.InstanceLoadFilter
+ */
+@Component
+public class InstanceLoadStats {
+    private final MeterRegistry meterRegistry;
+    private final long decayNanos;
+    private final long initialLatencyNanos;
+    private final long failurePenaltyNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, InstanceLoad> instances = new ConcurrentHashMap<>();
+
+    public InstanceLoadStats(MeterRegistry meterRegistry,
+                             @Value("${gateway.load-balancer.ewma-decay:10s}") Duration decay,
+                             @Value("${gateway.load-balancer.initial-latency:50ms}") Duration initialLatency,
+                             @Value("${gateway.load-balancer.failure-penalty:1s}") Duration failurePenalty) {
+        this(meterRegistry, decay, initialLatency, failurePenalty, System::nanoTime);
+    }
+
+    InstanceLoadStats(MeterRegistry meterRegistry, Duration decay, Duration initialLatency,
+                      Duration failurePenalty, LongSupplier nanoClock) {
+        this.meterRegistry = meterRegistry;
+        this.decayNanos = decay.toNanos();
+        this.initialLatencyNanos = initialLatency.toNanos();
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @param instance экземпляр сервиса
+     * @return нагрузка экземпляра (создается при первом обращении)
+     */
+    public InstanceLoad forInstance(ServiceInstance instance) {
+        String address = instance.getHost() + ":" + instance.getPort();
+        return instances.computeIfAbsent(instance.getServiceId() + "/" + address,
+                key -> register(instance.getServiceId(), address));
+    }
+
+    /**
+     * @return задержка, которая учитывается для неуспешного запроса, если он завершился быстрее
+     */
+    public long failurePenaltyNanos() {
+        return failurePenaltyNanos;
+    }
+
+    private InstanceLoad register(String serviceId, String address) {
+        InstanceLoad load = new InstanceLoad(decayNanos, initialLatencyNanos, nanoClock);
+        Tags tags = Tags.of("service", String.valueOf(serviceId), "instance", address);
+        Gauge.builder("gateway.lb.instance.score", load, InstanceLoad::score)
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("gateway.lb.instance.outstanding", load, InstanceLoad::outstanding)
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("gateway.lb.instance.latency.ewma", load, InstanceLoad::latencyEwmaNanos)
+                .tags(tags)
+                .baseUnit("nanoseconds")
+                .register(meterRegistry);
+        return load;
+    }
+}
@@ -0,0 +1,79 @@
+package dev.gerasimova.utils;
+
+import dev.gerasimova.dto.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Clock;
+import java.util.Base64;
+
+/**
+ * Внутренние заголовки аутентификации, которые gateway передает сервисам после проверки JWT.
+ * X-Auth-User и X-Auth-Roles содержат пользователя и роли, X-Auth-Timestamp - время подписи
+ * в секундах, X-Auth-Signature - HMAC-SHA256 от "пользователь\nроли\nвремя" общим внутренним ключом.
+ * Сервис за gateway может проверить подпись вместо повторной проверки JWT.
+ * Одноименные заголовки из входящего запроса всегда удаляются, чтобы их нельзя было подделать.
+ */
+@Component
+public class InternalAuthHeaders {
+    public static final String USER_HEADER = "X-Auth-User";
+    public static final String ROLES_HEADER = "X-Auth-Roles";
+    public static final String TIMESTAMP_HEADER = "X-Auth-Timestamp";
+    public static final String SIGNATURE_HEADER = "X-Auth-Signature";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private final SecretKeySpec signingKey;
+    private final ThreadLocal<Mac> macHolder;
+    private final Clock clock = Clock.systemUTC();
+
+    public InternalAuthHeaders(@Value("${gateway.internal-auth.secret:${jwt.secret}}") String secret) {
+        this.signingKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.macHolder = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Удаляет внутренние заголовки аутентификации, пришедшие от клиента.
+     *
+     * @param headers изменяемые заголовки запроса к сервису
+     */
+    public void strip(HttpHeaders headers) {
+        headers.remove(USER_HEADER);
+        headers.remove(ROLES_HEADER);
+        headers.remove(TIMESTAMP_HEADER);
+        headers.remove(SIGNATURE_HEADER);
+    }
+
+    /**
+     * Добавляет подписанные заголовки с проверенным пользователем.
+     *
+     * @param headers изменяемые заголовки запроса к сервису
+     * @param user пользователь из проверенного токена
+     */
+    public void apply(HttpHeaders headers, AuthenticatedUser user) {
+        String roles = String.join(",", user.roles());
+        String timestamp = Long.toString(clock.millis() / 1000);
+        headers.set(USER_HEADER, user.username());
+        headers.set(ROLES_HEADER, roles);
+        headers.set(TIMESTAMP_HEADER, timestamp);
+        headers.set(SIGNATURE_HEADER, sign(user.username() + "\n" + roles + "\n" + timestamp));
+    }
+
+    private String sign(String payload) {
+        byte[] signature = macHolder.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 недоступен", e);
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package dev.gerasimova.utils;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import dev.gerasimova.dto.AuthenticatedUser;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
@@ -10,42 +15,81 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Компонент для работы с JWT токенами.
- * Обеспечивает генерацию, валидацию и извлечение данных из JWT токенов.
+ * Обеспечивает валидацию и извлечение данных из JWT токенов.
+ * Токен разбирается и проверяется одним заранее собранным потокобезопасным парсером,
+ * результат кэшируется по SHA-256 токена до истечения его срока действия,
+ * поэтому повторные запросы с тем же токеном не пересчитывают подпись на event loop.
  *
  * @see Jwts
  */
 @Component
 @Slf4j
 public class JwtTokenProvider {
-    private final SecretKey secretKey;
+    private final JwtParser jwtParser;
+    private final Cache<String, AuthenticatedUser> userCache;
 
     public JwtTokenProvider(
-            @Value("${jwt.secret}") String secret) {
+            @Value("${jwt.secret}") String secret,
+            @Value("${jwt.claims-cache.max-size:50000}") long claimsCacheMaxSize) {
         if (secret.isBlank()) {
             throw new IllegalArgumentException("JWT secret не может быть пустым");
         }
-        this.secretKey = Keys.hmacShaKeyFor(secret.getBytes());
+        SecretKey secretKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
+        this.userCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .build();
+    }
+    /**
+     * Проверяет токен и возвращает данные пользователя.
+     * Токен разбирается один раз, невалидные токены не кэшируются.
+     *
+     * @param token JWT токен
+     * @return данные пользователя или null, если токен невалиден или истек
+     */
+    public AuthenticatedUser authenticate(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String key = sha256(token);
+        AuthenticatedUser cached = userCache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            AuthenticatedUser user = toUser(claims);
+            userCache.put(key, user);
+            return user;
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Невалидный JWT токен: {}", e.getMessage());
+            return null;
+        }
     }
     public UserDetails getUserDetails(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        String username = claims.getSubject();
-
-        String roles = claims.get("roles", String.class);
-        String[] rolesArray = roles != null ?
-                roles.split(",") : new String[0];
-
+        AuthenticatedUser user = authenticate(token);
+        if (user == null) {
+            throw new IllegalArgumentException("Невалидный JWT токен");
+        }
         return org.springframework.security.core.userdetails.User
-                .withUsername(username)
+                .withUsername(user.username())
                 .password("")
-                .authorities(rolesArray)
+                .authorities(user.roles().toArray(String[]::new))
                 .build();
     }
 
@@ -55,17 +99,50 @@ public class JwtTokenProvider {
      * @return true если токен валиден, false в противном случае
      */
     public boolean validateToken(String token) {
-        if (token == null || token.isEmpty()) {
-            return false;
-        }
+        return authenticate(token) != null;
+    }
+
+    private static AuthenticatedUser toUser(Claims claims) {
+        String roles = claims.get("roles", String.class);
+        List<String> rolesList = roles != null
+                ? Arrays.stream(roles.split(",")).map(String::trim).filter(role -> !role.isEmpty()).toList()
+                : List.of();
+        Date expiration = claims.getExpiration();
+        return new AuthenticatedUser(claims.getSubject(), rolesList,
+                expiration != null ? expiration.toInstant() : null);
+    }
+
+    private static String sha256(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(secretKey)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    /**
+     * Время жизни записи кэша равно оставшемуся сроку действия токена.
+     * Токены без срока действия в кэше не задерживаются.
+     */
+    private static final class TokenExpiry implements Expiry<String, AuthenticatedUser> {
+        @Override
+        public long expireAfterCreate(String key, AuthenticatedUser user, long currentTime) {
+            if (user.expiresAt() == null) {
+                return 0;
+            }
+            long remainingMs = user.expiresAt().toEpochMilli() - Instant.now().toEpochMilli();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, AuthenticatedUser user, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, user, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, AuthenticatedUser user, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
 }
@@ -0,0 +1,71 @@
+package dev.gerasimova.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Скользящее окно последних задержек ответа и их перцентиль.
+ * Запись - одна атомарная операция; перцентиль пересчитывается не чаще раза в секунду
+ * сортировкой копии окна, между пересчетами возвращается сохраненное значение.
+ */
+public class LatencyWindow {
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int MIN_SAMPLES = 20;
+    private final AtomicLongArray samples;
+    private final AtomicLong recorded = new AtomicLong();
+    private final double percentile;
+    private final long initialNanos;
+    private final LongSupplier nanoClock;
+    private volatile long percentileNanos;
+    private volatile long computedAtNanos;
+
+    /**
+     * @param size число хранимых последних задержек
+     * @param percentile перцентиль от 0 до 1
+     * @param initialNanos значение, пока в окне меньше 20 задержек
+     */
+    public LatencyWindow(int size, double percentile, long initialNanos) {
+        this(size, percentile, initialNanos, System::nanoTime);
+    }
+
+    LatencyWindow(int size, double percentile, long initialNanos, LongSupplier nanoClock) {
+        this.samples = new AtomicLongArray(size);
+        this.percentile = percentile;
+        this.initialNanos = initialNanos;
+        this.nanoClock = nanoClock;
+        this.percentileNanos = initialNanos;
+        this.computedAtNanos = nanoClock.getAsLong();
+    }
+
+    public void record(long latencyNanos) {
+        samples.set((int) (recorded.getAndIncrement() % samples.length()), latencyNanos);
+    }
+
+    /**
+     * @return перцентиль задержки, наносекунды
+     */
+    public long percentileNanos() {
+        long now = nanoClock.getAsLong();
+        if (now - computedAtNanos > REFRESH_NANOS) {
+            computedAtNanos = now;
+            percentileNanos = compute();
+        }
+        return percentileNanos;
+    }
+
+    private long compute() {
+        int count = (int) Math.min(recorded.get(), samples.length());
+        if (count < MIN_SAMPLES) {
+            return initialNanos;
+        }
+        long[] copy = new long[count];
+        for (int i = 0; i < count; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        return copy[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+    }
+}
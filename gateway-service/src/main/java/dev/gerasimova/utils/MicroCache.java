@@ -0,0 +1,114 @@
+package dev.gerasimova.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import dev.gerasimova.config.MicroCacheProperties;
+import dev.gerasimova.dto.CachedResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Хранилище микрокэша шлюза и реестр выполняющихся запросов (single-flight).
+ * Первый запрос по ключу становится ведущим и идет в сервис, одинаковые запросы,
+ * пришедшие до его завершения, ждут его результат вместо собственного обращения к сервису.
+ * Нагрузка на сервис ограничена числом различных ключей за TTL, а не частотой запросов.
+ *
+ * @see dev.gerasimova.filter.MicroCacheFilter
+ */
+@Component
+public class MicroCache {
+    private final MicroCacheProperties properties;
+    private final Cache<String, CachedResponse> responses;
+    private final ConcurrentMap<String, Sinks.One<Optional<CachedResponse>>> inFlight = new ConcurrentHashMap<>();
+
+    public MicroCache(MicroCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfter(new ResponseExpiry())
+                .build();
+        Gauge.builder("gateway.microcache.size", responses, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    /**
+     * @param routeId идентификатор маршрута
+     * @return настройки кэша маршрута или null, если кэш для маршрута не включен
+     */
+    public MicroCacheProperties.Route routeSettings(String routeId) {
+        return properties.getRoutes().get(routeId);
+    }
+
+    public long maxBodySize() {
+        return properties.getMaxBodySize().toBytes();
+    }
+
+    public CachedResponse get(String key) {
+        return responses.getIfPresent(key);
+    }
+
+    /**
+     * Регистрирует ведущий запрос по ключу.
+     *
+     * @param key ключ кэша
+     * @return sink для публикации результата или null, если ведущий запрос уже выполняется
+     */
+    public Sinks.One<Optional<CachedResponse>> lead(String key) {
+        Sinks.One<Optional<CachedResponse>> sink = Sinks.one();
+        return inFlight.putIfAbsent(key, sink) == null ? sink : null;
+    }
+
+    /**
+     * Ожидает результат ведущего запроса. Пустой Optional означает, что ответ не закэширован
+     * (ошибка, некэшируемый ответ, ведущий не успел за coalesce-timeout).
+     *
+     * @param key ключ кэша
+     * @return результат ведущего запроса
+     */
+    public Mono<Optional<CachedResponse>> follow(String key) {
+        Sinks.One<Optional<CachedResponse>> sink = inFlight.get(key);
+        if (sink == null) {
+            return Mono.just(Optional.ofNullable(responses.getIfPresent(key)));
+        }
+        return sink.asMono().timeout(properties.getCoalesceTimeout(), Mono.just(Optional.empty()));
+    }
+
+    /**
+     * Завершает ведущий запрос: сохраняет ответ (если он кэшируемый) и будит ожидающих.
+     *
+     * @param key ключ кэша
+     * @param sink sink, полученный из {@link #lead(String)}
+     * @param response кэшируемый ответ или null
+     */
+    public void complete(String key, Sinks.One<Optional<CachedResponse>> sink, CachedResponse response) {
+        if (response != null) {
+            responses.put(key, response);
+        }
+        inFlight.remove(key, sink);
+        sink.tryEmitValue(Optional.ofNullable(response));
+    }
+
+    private static final class ResponseExpiry implements Expiry<String, CachedResponse> {
+        @Override
+        public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+            return response.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+            return response.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
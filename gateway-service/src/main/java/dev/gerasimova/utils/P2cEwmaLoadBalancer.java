@@ -0,0 +1,81 @@
+package dev.gerasimova.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Балансировщик "power of two choices" по peak EWMA задержки.
+ * Из списка экземпляров выбираются два случайных, запрос получает экземпляр с меньшей
+ * оценкой нагрузки (EWMA задержки * (выполняющиеся запросы + 1)). В отличие от round-robin,
+ * экземпляр в паузе GC или с медленным запросом быстро перестает получать трафик.
+ * Нагрузка учитывается {@link dev.gerasimova.filter.InstanceLoadFilter}.
+ *
+ * @see InstanceLoadStats
+ */
+@Slf4j
+public class P2cEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+    private final InstanceLoadStats stats;
+
+    public P2cEwmaLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                               String serviceId,
+                               InstanceLoadStats stats) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.stats = stats;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = choose(instances);
+            if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                callback.selectedServiceInstance(response.getServer());
+            }
+            return response;
+        });
+    }
+
+    /**
+     * Выбирает экземпляр из списка.
+     *
+     * @param instances доступные экземпляры сервиса
+     * @return выбранный экземпляр или пустой ответ, если экземпляров нет
+     */
+    public Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("Нет доступных экземпляров сервиса {}", serviceId);
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        double scoreA = stats.forInstance(a).score();
+        double scoreB = stats.forInstance(b).score();
+        return new DefaultResponse(scoreA <= scoreB ? a : b);
+    }
+}
@@ -0,0 +1,184 @@
+package dev.gerasimova.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.gerasimova.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Квоты запросов пользователей (по subject JWT) на маршрутах из gateway.rate-limit.routes.
+ * Решение принимается по локальному token bucket в памяти узла, без обращения к Redis на каждый запрос.
+ * Раз в sync-interval потребление всех bucket отправляется в Redis одним скриптом:
+ * скрипт прибавляет его к счетчикам текущего окна и возвращает суммарное потребление всех узлов,
+ * по которому локальные bucket уменьшаются до остатка общей квоты.
+ * Если Redis недоступен, лимитер переходит в деградированный режим и продолжает работать
+ * только по локальным bucket; сверка возобновляется автоматически.
+ *
+ * @see TokenBucket
+ */
+@Slf4j
+@Component
+public class PrincipalRateLimiter {
+    private static final String KEY_PREFIX = "gateway:rate-limit:";
+    private static final int SYNC_BATCH_SIZE = 500;
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RECONCILE_SCRIPT = RedisScript.of("""
+            local ttl = tonumber(ARGV[1])
+            local totals = {}
+            for i, key in ipairs(KEYS) do
+              local delta = tonumber(ARGV[i + 1])
+              local total = redis.call('INCRBY', key, delta)
+              if total == delta then
+                redis.call('EXPIRE', key, ttl)
+              end
+              totals[i] = total
+            end
+            return totals
+            """, List.class);
+
+    private final RateLimitProperties properties;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Cache<String, TokenBucket> buckets;
+    private final AtomicBoolean degraded = new AtomicBoolean();
+    private final Counter syncFailures;
+    private final long windowSeconds;
+    private Disposable syncTask;
+
+    public PrincipalRateLimiter(RateLimitProperties properties,
+                                ReactiveStringRedisTemplate redisTemplate,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.windowSeconds = Math.max(1, properties.getWindow().toSeconds());
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxKeys())
+                .expireAfterAccess(properties.getWindow().multipliedBy(2))
+                .build();
+        this.syncFailures = Counter.builder("gateway.ratelimit.sync.failures").register(meterRegistry);
+        Gauge.builder("gateway.ratelimit.degraded", degraded, flag -> flag.get() ? 1 : 0)
+                .register(meterRegistry);
+        Gauge.builder("gateway.ratelimit.keys", buckets, Cache::estimatedSize)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        syncTask = Flux.interval(properties.getSyncInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> reconcile(), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (syncTask != null) {
+            syncTask.dispose();
+        }
+    }
+
+    /**
+     * @param routeId идентификатор маршрута
+     * @return true, если для маршрута настроена квота
+     */
+    public boolean isLimited(String routeId) {
+        return properties.getRoutes().containsKey(routeId);
+    }
+
+    /**
+     * Забирает один токен из bucket пользователя на маршруте. Не обращается к сети.
+     *
+     * @param routeId идентификатор маршрута с настроенной квотой
+     * @param principal имя пользователя или ключ клиента
+     * @return true, если запрос укладывается в квоту
+     */
+    public boolean tryAcquire(String routeId, String principal) {
+        RateLimitProperties.Limit limit = properties.getRoutes().get(routeId);
+        TokenBucket bucket = buckets.get(routeId + ":" + principal,
+                key -> new TokenBucket(limit.getBurstCapacity(), limit.getReplenishRate(),
+                        (long) limit.getReplenishRate() * windowSeconds, windowSeconds));
+        return bucket.tryConsume();
+    }
+
+    /**
+     * Отправляет накопленное потребление в Redis пачками и применяет суммарное потребление к bucket.
+     * Ошибки не прерывают периодическую сверку: потребление неотправленных пачек возвращается
+     * в bucket и учитывается следующей успешной сверкой.
+     */
+    private Mono<Void> reconcile() {
+        long window = System.currentTimeMillis() / 1000 / windowSeconds;
+        List<Map.Entry<String, TokenBucket>> pending = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+        for (Map.Entry<String, TokenBucket> entry : buckets.asMap().entrySet()) {
+            long delta = entry.getValue().drainUnsynced();
+            if (delta > 0) {
+                pending.add(entry);
+                deltas.add(delta);
+            }
+        }
+        if (pending.isEmpty()) {
+            return Mono.empty();
+        }
+        AtomicInteger synced = new AtomicInteger();
+        return Flux.range(0, (pending.size() + SYNC_BATCH_SIZE - 1) / SYNC_BATCH_SIZE)
+                .concatMap(batch -> {
+                    int from = batch * SYNC_BATCH_SIZE;
+                    int to = Math.min(pending.size(), from + SYNC_BATCH_SIZE);
+                    return syncBatch(pending.subList(from, to), deltas.subList(from, to), window)
+                            .doOnSuccess(ignored -> synced.set(to));
+                })
+                .then(Mono.fromRunnable(() -> {
+                    if (degraded.compareAndSet(true, false)) {
+                        log.info("Сверка квот с Redis восстановлена");
+                    }
+                }))
+                .onErrorResume(e -> {
+                    for (int i = synced.get(); i < pending.size(); i++) {
+                        pending.get(i).getValue().restoreUnsynced(deltas.get(i));
+                    }
+                    syncFailures.increment();
+                    if (degraded.compareAndSet(false, true)) {
+                        log.warn("Redis недоступен, квоты проверяются только локально: {}", e.getMessage());
+                    }
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<Void> syncBatch(List<Map.Entry<String, TokenBucket>> batch, List<Long> deltas, long window) {
+        List<String> keys = new ArrayList<>(batch.size());
+        List<String> args = new ArrayList<>(batch.size() + 1);
+        args.add(Long.toString(windowSeconds * 2));
+        for (int i = 0; i < batch.size(); i++) {
+            keys.add(KEY_PREFIX + batch.get(i).getKey() + ":" + window);
+            args.add(Long.toString(deltas.get(i)));
+        }
+        return redisTemplate.execute(RECONCILE_SCRIPT, keys, args)
+                .reduce(new ArrayList<Object>(), (totals, result) -> {
+                    totals.addAll(result);
+                    return totals;
+                })
+                .doOnNext(totals -> {
+                    for (int i = 0; i < totals.size() && i < batch.size(); i++) {
+                        batch.get(i).getValue().reconcile(window, ((Number) totals.get(i)).longValue());
+                    }
+                })
+                .then();
+    }
+}
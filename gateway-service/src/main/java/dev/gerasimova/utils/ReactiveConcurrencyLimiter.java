@@ -0,0 +1,168 @@
+package dev.gerasimova.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Неблокирующий ограничитель одновременных запросов в стиле семафора.
+ * Слот захватывается CAS-ом по счетчику выполняемых запросов. Если слотов нет, запрос
+ * ставится в ограниченную очередь ожидания, и слот передается ему потоком, который
+ * освобождает предыдущий слот, - без блокировок и без переключения на отдельный пул.
+ * Запрос отклоняется, если очередь заполнена или ожидание превысило maxWait.
+ * Метрики с тегом route: gateway.concurrency.in_flight, gateway.concurrency.queued,
+ * gateway.concurrency.rejected, gateway.concurrency.queue_wait.
+ */
+public class ReactiveConcurrencyLimiter {
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int CANCELLED = 2;
+    private static final Mono<Boolean> ACQUIRED = Mono.just(Boolean.TRUE);
+    private static final Mono<Boolean> REJECTED = Mono.just(Boolean.FALSE);
+
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final Duration maxWait;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final Counter rejectedCounter;
+    private final Timer queueWaitTimer;
+
+    /**
+     * Запрос, ожидающий слот. Слот либо выдается (GRANTED), либо ожидание отменяется
+     * по таймауту или отмене подписки (CANCELLED) - ровно один из переходов выигрывает CAS.
+     */
+    private static final class Waiter {
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private final Sinks.One<Boolean> sink = Sinks.one();
+        private final long enqueuedAt = System.nanoTime();
+
+        boolean grant() {
+            return state.compareAndSet(WAITING, GRANTED);
+        }
+
+        boolean cancel() {
+            return state.compareAndSet(WAITING, CANCELLED);
+        }
+    }
+
+    public ReactiveConcurrencyLimiter(String routeId, int maxConcurrent, int maxQueue, Duration maxWait,
+                                      MeterRegistry meterRegistry) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.maxWait = maxWait;
+        Gauge.builder("gateway.concurrency.in_flight", inFlight, AtomicInteger::get)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.queued", queued, AtomicInteger::get)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("gateway.concurrency.rejected")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("gateway.concurrency.queue_wait")
+                .tag("route", routeId)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Захватывает слот.
+     *
+     * @return true, если слот получен (после выполнения нужно вызвать release), false - если запрос отклонен
+     */
+    public Mono<Boolean> acquire() {
+        if (tryAcquire()) {
+            return ACQUIRED;
+        }
+        if (queued.incrementAndGet() > maxQueue) {
+            queued.decrementAndGet();
+            rejectedCounter.increment();
+            return REJECTED;
+        }
+        Waiter waiter = new Waiter();
+        waiters.offer(waiter);
+        drain();
+        return waiter.sink.asMono()
+                .timeout(maxWait, Mono.fromSupplier(() -> {
+                    if (abandon(waiter)) {
+                        rejectedCounter.increment();
+                        return Boolean.FALSE;
+                    }
+                    return Boolean.TRUE;
+                }))
+                .doOnCancel(() -> {
+                    if (!abandon(waiter)) {
+                        release();
+                    }
+                });
+    }
+
+    /**
+     * Отменяет ожидание. Если отмена выиграла у выдачи слота, запрос сразу перестает
+     * занимать место в очереди, чтобы отмененные ожидания не вытесняли новые запросы.
+     *
+     * @return true, если ожидание отменено; false, если слот уже выдан
+     */
+    private boolean abandon(Waiter waiter) {
+        if (!waiter.cancel()) {
+            return false;
+        }
+        queued.decrementAndGet();
+        waiters.remove(waiter);
+        return true;
+    }
+
+    /**
+     * Освобождает слот и передает его следующему ожидающему запросу.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    private boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= maxConcurrent) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Раздает свободные слоты ожидающим запросам. Вызывается после освобождения слота
+     * и после постановки в очередь, чтобы не потерять слот, освободившийся между ними.
+     * Отмененные ожидания пропускаются: счетчик очереди для них уже уменьшен в {@link #abandon}.
+     */
+    private void drain() {
+        while (!waiters.isEmpty()) {
+            if (!tryAcquire()) {
+                return;
+            }
+            Waiter waiter = waiters.poll();
+            if (waiter == null) {
+                inFlight.decrementAndGet();
+                continue;
+            }
+            if (waiter.grant()) {
+                queued.decrementAndGet();
+                queueWaitTimer.record(System.nanoTime() - waiter.enqueuedAt, TimeUnit.NANOSECONDS);
+                waiter.sink.tryEmitValue(Boolean.TRUE);
+            } else {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package dev.gerasimova.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Локальный token bucket одного пользователя на одном маршруте.
+ * Проверка выполняется в памяти без обращения к Redis; израсходованные токены
+ * накапливаются в счетчике и периодически отправляются в Redis для сверки.
+ * Кроме токенов bucket хранит потолок - остаток общей квоты всех узлов в текущем окне
+ * по последней сверке. Пополнение не поднимает токены выше потолка, потолок сбрасывается
+ * до полной квоты только со сменой окна.
+ */
+public class TokenBucket {
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+    private final double capacity;
+    private final double refillPerNano;
+    private final long windowBudget;
+    private final long windowMillis;
+    private final LongSupplier nanoClock;
+    private final LongSupplier millisClock;
+    private final AtomicLong unsynced = new AtomicLong();
+    private double tokens;
+    private long lastRefillNanos;
+    private long window;
+    private long globalRemaining;
+
+    /**
+     * @param capacity максимальный всплеск
+     * @param refillPerSecond скорость пополнения, токенов в секунду
+     * @param windowBudget суммарная квота всех узлов на окно сверки
+     * @param windowSeconds длительность окна сверки в секундах
+     */
+    public TokenBucket(int capacity, int refillPerSecond, long windowBudget, long windowSeconds) {
+        this(capacity, refillPerSecond, windowBudget, windowSeconds, System::nanoTime, System::currentTimeMillis);
+    }
+
+    TokenBucket(int capacity, int refillPerSecond, long windowBudget, long windowSeconds,
+                LongSupplier nanoClock, LongSupplier millisClock) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / NANOS_PER_SECOND;
+        this.windowBudget = windowBudget;
+        this.windowMillis = windowSeconds * 1000;
+        this.nanoClock = nanoClock;
+        this.millisClock = millisClock;
+        this.tokens = capacity;
+        this.lastRefillNanos = nanoClock.getAsLong();
+        this.window = currentWindow();
+        this.globalRemaining = windowBudget;
+    }
+
+    /**
+     * Забирает один токен, если он есть и общая квота окна не исчерпана.
+     *
+     * @return true, если запрос разрешен
+     */
+    public synchronized boolean tryConsume() {
+        refill();
+        if (tokens < 1 || globalRemaining < 1) {
+            return false;
+        }
+        tokens -= 1;
+        globalRemaining -= 1;
+        unsynced.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Устанавливает потолок по остатку общей квоты после сверки с Redis,
+     * чтобы потребление на других узлах уменьшало квоту на этом до конца окна.
+     * Потребление, накопленное после отправки в Redis, вычитается из остатка.
+     * Результат сверки прошлого окна не применяется.
+     *
+     * @param syncedWindow номер окна, в котором выполнялась сверка
+     * @param globalConsumed суммарное потребление всех узлов в этом окне
+     */
+    public synchronized void reconcile(long syncedWindow, long globalConsumed) {
+        refill();
+        if (syncedWindow != window) {
+            return;
+        }
+        globalRemaining = Math.max(0, windowBudget - globalConsumed - unsynced.get());
+        tokens = Math.min(tokens, globalRemaining);
+    }
+
+    /**
+     * @return количество токенов, израсходованных с прошлой сверки (счетчик обнуляется)
+     */
+    public long drainUnsynced() {
+        return unsynced.getAndSet(0);
+    }
+
+    /**
+     * Возвращает в счетчик потребление, которое не удалось отправить в Redis,
+     * чтобы оно было учтено следующей сверкой.
+     *
+     * @param delta количество токенов из {@link #drainUnsynced()}
+     */
+    public void restoreUnsynced(long delta) {
+        unsynced.addAndGet(delta);
+    }
+
+    /**
+     * @return номер текущего окна сверки, тот же, что в ключах Redis
+     */
+    public long currentWindow() {
+        return millisClock.getAsLong() / windowMillis;
+    }
+
+    private void refill() {
+        long currentWindow = currentWindow();
+        if (currentWindow != window) {
+            window = currentWindow;
+            globalRemaining = windowBudget;
+        }
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(Math.min(capacity, globalRemaining), tokens + (now - lastRefillNanos) * refillPerNano);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,78 @@
+package dev.gerasimova.filter;
+
+import dev.gerasimova.utils.InstanceLoad;
+import dev.gerasimova.utils.InstanceLoadStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-тесты для InstanceLoadFilter.
+ *
+ * @see InstanceLoadFilter
+ */
+class InstanceLoadFilterTest {
+    private static final Duration FAILURE_PENALTY = Duration.ofSeconds(1);
+
+    private final ServiceInstance instance =
+            new DefaultServiceInstance("book-1", "BOOK-SERVICE", "localhost", 8081, false);
+    private InstanceLoadStats stats;
+    private InstanceLoadFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        stats = new InstanceLoadStats(new SimpleMeterRegistry(), Duration.ofSeconds(10),
+                Duration.ofMillis(50), FAILURE_PENALTY);
+        filter = new InstanceLoadFilter(stats);
+    }
+    /**
+     * Проверяет, что отмененный запрос (отключение клиента, таймаут circuit breaker)
+     * освобождает счетчик выполняющихся запросов экземпляра.
+     */
+    @Test
+    void cancelledExchangeReleasesOutstanding() {
+        InstanceLoad load = stats.forInstance(instance);
+
+        Disposable pending = filter.filter(exchange(), exchange -> Mono.never()).subscribe();
+        assertEquals(1, load.outstanding());
+        pending.dispose();
+
+        assertEquals(0, load.outstanding());
+    }
+    /**
+     * Проверяет, что ответ 5xx учитывается с задержкой не меньше штрафа.
+     */
+    @Test
+    void serverErrorIsPenalized() {
+        InstanceLoad load = stats.forInstance(instance);
+
+        filter.filter(exchange(), exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return Mono.empty();
+        }).block(Duration.ofSeconds(5));
+
+        assertEquals(0, load.outstanding());
+        assertTrue(load.latencyEwmaNanos() >= FAILURE_PENALTY.toNanos() * 0.99);
+    }
+
+    private MockServerWebExchange exchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/books/1"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR,
+                new DefaultResponse(instance));
+        return exchange;
+    }
+}
@@ -0,0 +1,131 @@
+package dev.gerasimova.filter;
+
+import dev.gerasimova.config.MicroCacheProperties;
+import dev.gerasimova.utils.MicroCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Unit-тесты для MicroCacheFilter.
+ * Сервис имитируется цепочкой фильтров, которая отвечает с заголовками Spring Security по умолчанию.
+ *
+ * @see MicroCacheFilter
+ */
+class MicroCacheFilterTest {
+    private static final String ROUTE_ID = "book-service-api";
+    private static final String SECURITY_CACHE_CONTROL = "no-cache, no-store, max-age=0, must-revalidate";
+    private static final String BODY = "{\"title\":\"Война и мир\"}";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger originCalls = new AtomicInteger();
+    private final Route route = Route.async()
+            .id(ROUTE_ID)
+            .uri("lb://BOOK-SERVICE")
+            .predicate(exchange -> true)
+            .build();
+    private MicroCacheProperties.Route settings;
+    private MicroCacheFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        settings = new MicroCacheProperties.Route();
+        settings.setTtl(Duration.ofSeconds(30));
+        settings.setIgnoreOriginCacheControl(true);
+        MicroCacheProperties properties = new MicroCacheProperties();
+        properties.getRoutes().put(ROUTE_ID, settings);
+        filter = new MicroCacheFilter(new MicroCache(properties, meterRegistry), meterRegistry);
+    }
+    /**
+     * Проверяет, что одновременный одинаковый запрос ждет ответ ведущего,
+     * а следующий запрос получает ответ из кэша: сервис вызывается один раз.
+     */
+    @Test
+    void followerIsCoalescedAndNextRequestHitsCache() {
+        Sinks.Empty<Void> originGate = Sinks.empty();
+        MockServerWebExchange leader = exchange();
+        MockServerWebExchange follower = exchange();
+        MockServerWebExchange next = exchange();
+
+        Mono<Void> leading = filter.filter(leader, origin(originGate.asMono())).cache();
+        leading.subscribe();
+        Mono<Void> following = filter.filter(follower, origin(Mono.empty())).cache();
+        following.subscribe();
+        originGate.tryEmitEmpty();
+        leading.block(Duration.ofSeconds(5));
+        following.block(Duration.ofSeconds(5));
+        filter.filter(next, origin(Mono.empty())).block(Duration.ofSeconds(5));
+
+        assertEquals(1, originCalls.get());
+        assertEquals(BODY, leader.getResponse().getBodyAsString().block());
+        assertEquals(BODY, follower.getResponse().getBodyAsString().block());
+        assertEquals(BODY, next.getResponse().getBodyAsString().block());
+        assertEquals("HIT", follower.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("HIT", next.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(1.0, count("miss"));
+        assertEquals(1.0, count("coalesced"));
+        assertEquals(1.0, count("hit"));
+    }
+    /**
+     * Проверяет, что без ignore-origin-cache-control заголовки Spring Security по умолчанию
+     * запрещают кэширование и каждый запрос идет в сервис.
+     */
+    @Test
+    void originNoCacheIsRespectedByDefault() {
+        settings.setIgnoreOriginCacheControl(false);
+
+        filter.filter(exchange(), origin(Mono.empty())).block(Duration.ofSeconds(5));
+        MockServerWebExchange second = exchange();
+        filter.filter(second, origin(Mono.empty())).block(Duration.ofSeconds(5));
+
+        assertEquals(2, originCalls.get());
+        assertNull(second.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(2.0, count("miss"));
+    }
+
+    private GatewayFilterChain origin(Mono<Void> gate) {
+        return exchange -> gate.then(Mono.defer(() -> {
+            originCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().set(HttpHeaders.CACHE_CONTROL, SECURITY_CACHE_CONTROL);
+            response.getHeaders().set(HttpHeaders.PRAGMA, "no-cache");
+            byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        }));
+    }
+
+    private MockServerWebExchange exchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/api/books/1")
+                .header(HttpHeaders.ACCEPT, "application/json"));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("gateway.microcache.requests")
+                .tag("route", ROUTE_ID)
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+}
@@ -0,0 +1,75 @@
+package dev.gerasimova.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-тесты для HedgeBudget.
+ *
+ * @see HedgeBudget
+ */
+class HedgeBudgetTest {
+    /**
+     * Проверяет, что без запросов маршрута хеджировать нельзя.
+     */
+    @Test
+    void emptyBudgetRejectsHedge() {
+        HedgeBudget budget = new HedgeBudget(0.1);
+
+        assertFalse(budget.tryAcquire());
+    }
+    /**
+     * Проверяет, что доля хеджей не превышает заданной: 10% от 100 запросов - 10 хеджей.
+     */
+    @Test
+    void hedgesAreLimitedByRatio() {
+        HedgeBudget budget = new HedgeBudget(0.1);
+
+        int hedges = 0;
+        for (int i = 0; i < 100; i++) {
+            budget.onRequest();
+            if (budget.tryAcquire()) {
+                hedges++;
+            }
+        }
+
+        assertEquals(10, hedges);
+        assertFalse(budget.tryAcquire());
+    }
+    /**
+     * Проверяет, что накопленный за период без хеджей кредит ограничен десятью хеджами,
+     * чтобы после долгого затишья не отправить лавину дополнительных запросов.
+     */
+    @Test
+    void accumulatedCreditIsCapped() {
+        HedgeBudget budget = new HedgeBudget(0.5);
+        for (int i = 0; i < 1000; i++) {
+            budget.onRequest();
+        }
+
+        int hedges = 0;
+        while (budget.tryAcquire()) {
+            hedges++;
+        }
+
+        assertEquals(10, hedges);
+    }
+    /**
+     * Проверяет, что при нулевой доле хеджирование выключено.
+     */
+    @Test
+    void zeroRatioNeverHedges() {
+        HedgeBudget budget = new HedgeBudget(0);
+        for (int i = 0; i < 1000; i++) {
+            budget.onRequest();
+        }
+
+        assertFalse(budget.tryAcquire());
+        budget = new HedgeBudget(1);
+        budget.onRequest();
+        assertTrue(budget.tryAcquire());
+    }
+}
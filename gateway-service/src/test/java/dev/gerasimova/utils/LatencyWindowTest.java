@@ -0,0 +1,97 @@
+package dev.gerasimova.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit-тесты для LatencyWindow.
+ * Время управляется вручную, чтобы проверять пересчет перцентиля раз в секунду.
+ *
+ * @see LatencyWindow
+ */
+class LatencyWindowTest {
+    private static final long INITIAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        nanos.set(0);
+    }
+    /**
+     * Проверяет, что пока в окне меньше 20 задержек, возвращается начальное значение.
+     */
+    @Test
+    void initialValueUntilEnoughSamples() {
+        LatencyWindow window = window(100, 0.95);
+        recordMillis(window, 1, 19);
+
+        advanceSeconds(2);
+
+        assertEquals(INITIAL_NANOS, window.percentileNanos());
+    }
+    /**
+     * Проверяет расчет перцентиля по задержкам 1..100 мс: p95 - 95 мс, p50 - 50 мс.
+     */
+    @Test
+    void percentileOfRecordedLatencies() {
+        LatencyWindow p95 = window(100, 0.95);
+        LatencyWindow p50 = window(100, 0.5);
+        recordMillis(p95, 1, 100);
+        recordMillis(p50, 1, 100);
+
+        advanceSeconds(2);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(95), p95.percentileNanos());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), p50.percentileNanos());
+    }
+    /**
+     * Проверяет, что перцентиль пересчитывается не чаще раза в секунду.
+     */
+    @Test
+    void percentileIsRecomputedOncePerSecond() {
+        LatencyWindow window = window(100, 0.95);
+        recordMillis(window, 1, 100);
+        advanceSeconds(2);
+        long before = window.percentileNanos();
+
+        recordMillis(window, 500, 599);
+        long cached = window.percentileNanos();
+        advanceSeconds(2);
+
+        assertEquals(before, cached);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(594), window.percentileNanos());
+    }
+    /**
+     * Проверяет, что окно хранит только последние задержки и старые вытесняются.
+     */
+    @Test
+    void oldSamplesAreOverwritten() {
+        LatencyWindow window = window(20, 0.5);
+        recordMillis(window, 1000, 1019);
+        recordMillis(window, 1, 20);
+
+        advanceSeconds(2);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(10), window.percentileNanos());
+    }
+
+    private LatencyWindow window(int size, double percentile) {
+        return new LatencyWindow(size, percentile, INITIAL_NANOS, nanos::get);
+    }
+
+    private static void recordMillis(LatencyWindow window, long fromMillis, long toMillis) {
+        for (long millis = fromMillis; millis <= toMillis; millis++) {
+            window.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+
+    private void advanceSeconds(long seconds) {
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+}
@@ -0,0 +1,132 @@
+package dev.gerasimova.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-тесты для P2cEwmaLoadBalancer.
+ * Экземпляры - заглушки DefaultServiceInstance, время затухания EWMA управляется вручную.
+ * Из двух экземпляров P2C всегда сравнивает оба, поэтому выбор детерминирован.
+ *
+ * @see P2cEwmaLoadBalancer
+ */
+class P2cEwmaLoadBalancerTest {
+    private static final String SERVICE_ID = "BOOK-SERVICE";
+    private static final int ATTEMPTS = 100;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final ServiceInstance slow = instance("book-1", 8081);
+    private final ServiceInstance fast = instance("book-2", 8082);
+    private InstanceLoadStats stats;
+    private P2cEwmaLoadBalancer balancer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        nanos.set(0);
+        stats = new InstanceLoadStats(new SimpleMeterRegistry(), Duration.ofSeconds(10),
+                Duration.ofMillis(50), Duration.ofSeconds(1), nanos::get);
+        balancer = new P2cEwmaLoadBalancer(Mockito.mock(ObjectProvider.class), SERVICE_ID, stats);
+    }
+    /**
+     * Проверяет, что запрос получает экземпляр с меньшей EWMA задержки.
+     */
+    @Test
+    void choosesInstanceWithLowerLatency() {
+        complete(slow, Duration.ofMillis(200));
+        complete(fast, Duration.ofMillis(20));
+
+        assertAlwaysChosen(fast);
+    }
+    /**
+     * Проверяет, что выполняющиеся запросы увеличивают оценку нагрузки экземпляра.
+     */
+    @Test
+    void outstandingRequestsRaiseScore() {
+        stats.forInstance(slow).onStart();
+        stats.forInstance(slow).onStart();
+
+        assertAlwaysChosen(fast);
+
+        stats.forInstance(slow).onDiscard();
+        stats.forInstance(slow).onDiscard();
+        stats.forInstance(fast).onStart();
+
+        assertAlwaysChosen(slow);
+    }
+    /**
+     * Проверяет, что быстрая ошибка со штрафом делает экземпляр хуже медленного успешного.
+     */
+    @Test
+    void failurePenaltyOutweighsFastError() {
+        complete(fast, Duration.ofMillis(300));
+        stats.forInstance(slow).onStart();
+        stats.forInstance(slow).onComplete(Math.max(TimeUnit.MILLISECONDS.toNanos(5), stats.failurePenaltyNanos()));
+
+        assertAlwaysChosen(fast);
+    }
+    /**
+     * Проверяет, что без новых замеров оценка медленного экземпляра затухает
+     * и он снова получает пробные запросы.
+     */
+    @Test
+    void slowInstanceIsProbedAgainAfterDecay() {
+        complete(slow, Duration.ofSeconds(1));
+        complete(fast, Duration.ofMillis(50));
+        assertAlwaysChosen(fast);
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        complete(fast, Duration.ofMillis(50));
+
+        assertTrue(stats.forInstance(slow).latencyEwmaNanos() < TimeUnit.MILLISECONDS.toNanos(50));
+        assertAlwaysChosen(slow);
+    }
+    /**
+     * Проверяет пустой список и список из одного экземпляра: единственный экземпляр
+     * выбирается независимо от нагрузки.
+     */
+    @Test
+    void emptyAndSingleInstanceLists() {
+        stats.forInstance(slow).onStart();
+        complete(slow, Duration.ofSeconds(5));
+
+        Response<ServiceInstance> empty = balancer.choose(List.of());
+        Response<ServiceInstance> single = balancer.choose(List.of(slow));
+
+        assertFalse(empty.hasServer());
+        assertTrue(single.hasServer());
+        assertEquals(slow, single.getServer());
+    }
+
+    private void assertAlwaysChosen(ServiceInstance expected) {
+        for (int i = 0; i < ATTEMPTS; i++) {
+            assertEquals(expected, balancer.choose(List.of(slow, fast)).getServer());
+        }
+    }
+
+    private void complete(ServiceInstance instance, Duration latency) {
+        InstanceLoad load = stats.forInstance(instance);
+        load.onStart();
+        load.onComplete(latency.toNanos());
+    }
+
+    private static ServiceInstance instance(String instanceId, int port) {
+        return new DefaultServiceInstance(instanceId, SERVICE_ID, "localhost", port, false);
+    }
+}
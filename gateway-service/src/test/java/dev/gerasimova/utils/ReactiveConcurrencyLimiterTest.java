@@ -0,0 +1,101 @@
+package dev.gerasimova.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-тесты для ReactiveConcurrencyLimiter.
+ * Метрики читаются из SimpleMeterRegistry, ожидания завершаются блокирующим ожиданием Mono.
+ *
+ * @see ReactiveConcurrencyLimiter
+ */
+class ReactiveConcurrencyLimiterTest {
+    private static final String ROUTE = "test-route";
+    private static final Duration MAX_WAIT = Duration.ofMillis(50);
+    private static final Duration BLOCK_TIMEOUT = Duration.ofSeconds(5);
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReactiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new ReactiveConcurrencyLimiter(ROUTE, 1, 2, MAX_WAIT, meterRegistry);
+    }
+    /**
+     * Проверяет, что свободный слот выдается сразу, а освобожденный - ожидающему запросу.
+     */
+    @Test
+    void grantsFreeSlotAndHandsReleasedSlotToWaiter() {
+        assertTrue(limiter.acquire().block(BLOCK_TIMEOUT));
+        AtomicReference<Boolean> waiterResult = new AtomicReference<>();
+        limiter.acquire().subscribe(waiterResult::set);
+        assertNull(waiterResult.get());
+        assertEquals(1, gauge("gateway.concurrency.queued"));
+
+        limiter.release();
+
+        assertEquals(Boolean.TRUE, waiterResult.get());
+        assertEquals(0, gauge("gateway.concurrency.queued"));
+        assertEquals(1, gauge("gateway.concurrency.in_flight"));
+    }
+    /**
+     * Проверяет, что ожидание дольше maxWait отклоняется и освобождает место в очереди.
+     */
+    @Test
+    void rejectsWaiterAfterTimeout() {
+        assertTrue(limiter.acquire().block(BLOCK_TIMEOUT));
+
+        assertFalse(limiter.acquire().block(BLOCK_TIMEOUT));
+
+        assertEquals(0, gauge("gateway.concurrency.queued"));
+        assertEquals(1, meterRegistry.get("gateway.concurrency.rejected").counter().count());
+    }
+    /**
+     * Проверяет, что отмененное ожидание не получает освободившийся слот и не занимает очередь.
+     */
+    @Test
+    void cancelledWaiterLeavesQueueAndDoesNotTakeSlot() {
+        assertTrue(limiter.acquire().block(BLOCK_TIMEOUT));
+        Disposable waiter = limiter.acquire().subscribe();
+
+        waiter.dispose();
+
+        assertEquals(0, gauge("gateway.concurrency.queued"));
+        limiter.release();
+        assertEquals(0, gauge("gateway.concurrency.in_flight"));
+        assertTrue(limiter.acquire().block(BLOCK_TIMEOUT));
+    }
+    /**
+     * Проверяет, что после таймаутов всех ожидающих при занятых слотах новые запросы
+     * снова ставятся в очередь, а не отклоняются из-за мертвых ожиданий.
+     */
+    @Test
+    void timedOutWaitersDoNotFillQueueUnderSaturation() {
+        assertTrue(limiter.acquire().block(BLOCK_TIMEOUT));
+        assertFalse(limiter.acquire().block(BLOCK_TIMEOUT));
+        assertFalse(limiter.acquire().block(BLOCK_TIMEOUT));
+
+        AtomicReference<Boolean> waiterResult = new AtomicReference<>();
+        limiter.acquire().subscribe(waiterResult::set);
+
+        assertNull(waiterResult.get());
+        assertEquals(1, gauge("gateway.concurrency.queued"));
+        limiter.release();
+        assertEquals(Boolean.TRUE, waiterResult.get());
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).tag("route", ROUTE).gauge().value();
+    }
+}
@@ -0,0 +1,116 @@
+package dev.gerasimova.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-тесты для TokenBucket.
+ * Время управляется вручную, сверка с Redis имитируется суммой потребления двух bucket.
+ *
+ * @see TokenBucket
+ */
+class TokenBucketTest {
+    private static final int CAPACITY = 10;
+    private static final int RATE = 10;
+    private static final long WINDOW_SECONDS = 60;
+    private static final long BUDGET = 20;
+    private static final long WINDOW_START_MILLIS = TimeUnit.SECONDS.toMillis(WINDOW_SECONDS * 1000);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicLong millis = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        nanos.set(0);
+        millis.set(WINDOW_START_MILLIS);
+    }
+    /**
+     * Проверяет, что два узла с общей квотой окна вместе пропускают не больше квоты,
+     * даже когда локальные bucket успели пополниться.
+     */
+    @Test
+    void twoBucketsShareOneWindowBudget() {
+        TokenBucket first = bucket();
+        TokenBucket second = bucket();
+
+        long admitted = consumeAll(first) + consumeAll(second);
+        long window = first.currentWindow();
+        long globalConsumed = first.drainUnsynced() + second.drainUnsynced();
+        first.reconcile(window, globalConsumed);
+        second.reconcile(window, globalConsumed);
+
+        advanceSeconds(5);
+        admitted += consumeAll(first) + consumeAll(second);
+
+        assertEquals(BUDGET, admitted);
+        assertFalse(first.tryConsume());
+        assertFalse(second.tryConsume());
+    }
+    /**
+     * Проверяет, что с началом нового окна квота восстанавливается.
+     */
+    @Test
+    void budgetResetsWhenWindowRollsOver() {
+        TokenBucket bucket = bucket();
+        consumeAll(bucket);
+        bucket.reconcile(bucket.currentWindow(), BUDGET);
+        advanceSeconds(1);
+        assertFalse(bucket.tryConsume());
+
+        advanceSeconds(WINDOW_SECONDS);
+
+        assertTrue(bucket.tryConsume());
+    }
+    /**
+     * Проверяет, что результат сверки прошлого окна не ограничивает текущее.
+     */
+    @Test
+    void reconcileOfPreviousWindowIsIgnored() {
+        TokenBucket bucket = bucket();
+        long previousWindow = bucket.currentWindow();
+        advanceSeconds(WINDOW_SECONDS);
+
+        bucket.reconcile(previousWindow, BUDGET);
+
+        assertTrue(bucket.tryConsume());
+    }
+    /**
+     * Проверяет, что потребление, возвращенное после неудачной сверки, попадает в следующую.
+     */
+    @Test
+    void restoredDeltaIsDrainedAgain() {
+        TokenBucket bucket = bucket();
+        bucket.tryConsume();
+        bucket.tryConsume();
+        long delta = bucket.drainUnsynced();
+
+        bucket.restoreUnsynced(delta);
+        bucket.tryConsume();
+
+        assertEquals(3, bucket.drainUnsynced());
+    }
+
+    private TokenBucket bucket() {
+        return new TokenBucket(CAPACITY, RATE, BUDGET, WINDOW_SECONDS, nanos::get, millis::get);
+    }
+
+    private void advanceSeconds(long seconds) {
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+        millis.addAndGet(TimeUnit.SECONDS.toMillis(seconds));
+    }
+
+    private static long consumeAll(TokenBucket bucket) {
+        long admitted = 0;
+        while (bucket.tryConsume()) {
+            admitted++;
+        }
+        return admitted;
+    }
+}
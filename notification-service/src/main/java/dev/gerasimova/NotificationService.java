@@ -2,10 +2,8 @@ package dev.gerasimova;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.scheduling.annotation.EnableAsync;
 
 @SpringBootApplication
-@EnableAsync
 public class NotificationService {
     public static void main(String[] args) {
         SpringApplication.run(NotificationService.class, args);
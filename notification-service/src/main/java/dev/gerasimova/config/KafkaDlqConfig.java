@@ -1,6 +1,5 @@
 package dev.gerasimova.config;
 
-import com.fasterxml.jackson.core.JsonParseException;
 import dev.gerasimova.dto.BookCreatedEvent;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.NewTopic;
@@ -12,8 +11,10 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.util.backoff.FixedBackOff;
 import java.util.HashMap;
@@ -22,38 +23,85 @@ import java.util.Map;
 @Slf4j
 @Configuration
 public class KafkaDlqConfig {
+    public static final String DLQ_TOPIC = "book_events_dlq";
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
+    @Value("${notification.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+    @Value("${notification.consumer.batch.retry-interval-ms:1000}")
+    private long batchRetryIntervalMs;
+    @Value("${notification.consumer.batch.max-retries:5}")
+    private long batchMaxRetries;
     @Bean
     public NewTopic dlqTopic() {
-        log.info("Создаю DLQ топик: book_events_dlq");
-        return new NewTopic("book_events_dlq", 1, (short) 1);
+        log.info("Создаю DLQ топик: {}", DLQ_TOPIC);
+        return new NewTopic(DLQ_TOPIC, 1, (short) 1);
     }
+    /**
+     * Фабрика потребителей BookCreatedEvent.
+     * Ошибки десериализации не прерывают poll: запись приходит в слушатель с пустым значением
+     * и заголовком исключения, а в DLQ отправляются исходные байты.
+     */
     @Bean
     public ConsumerFactory<String, BookCreatedEvent> bookEventConsumerFactory() {
         Map<String, Object> config = new HashMap<>();
         config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         config.put(ConsumerConfig.GROUP_ID_CONFIG, "notification_group");
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
 
         return new DefaultKafkaConsumerFactory<>(config, new StringDeserializer(),
-                new JsonDeserializer<>(BookCreatedEvent.class));
+                new ErrorHandlingDeserializer<>(new JsonDeserializer<>(BookCreatedEvent.class)));
     }
 
+    /**
+     * Публикует необработанные записи в DLQ.
+     */
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, BookCreatedEvent> dlqKafkaListenerContainerFactory
-            (KafkaOperations<String, BookCreatedEvent> dlqTemplate) {
-        log.info("Создаем dlqKafkaListenerContainerFactory...");
-
-        var recoverer = new DeadLetterPublishingRecoverer(dlqTemplate, (rec, ex) ->
-                new TopicPartition("book_events_dlq", rec.partition())
+    public DeadLetterPublishingRecoverer bookEventDlqRecoverer(KafkaOperations<String, BookCreatedEvent> dlqTemplate) {
+        return new DeadLetterPublishingRecoverer(dlqTemplate, (rec, ex) ->
+                new TopicPartition(DLQ_TOPIC, rec.partition())
         );
-        var errorHandler = new DefaultErrorHandler(recoverer, new FixedBackOff(0, 2));
-        errorHandler.addNotRetryableExceptions(JsonParseException.class);
+    }
+
+    /**
+     * Фабрика пакетного слушателя: слушатель получает весь poll целиком.
+     * Смещения коммитятся после возврата из слушателя, то есть после записи пакета в MongoDB
+     * и отправки отдельных неудачных записей в DLQ. Если пакет не удалось записать целиком
+     * (MongoDB недоступна), он повторяется; после исчерпания попыток записи уходят в DLQ.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, BookCreatedEvent> bookEventBatchListenerContainerFactory
+            (DeadLetterPublishingRecoverer bookEventDlqRecoverer) {
+        log.info("Создаем bookEventBatchListenerContainerFactory...");
+
+        var errorHandler = new DefaultErrorHandler(bookEventDlqRecoverer,
+                new FixedBackOff(batchRetryIntervalMs, batchMaxRetries));
 
         ConcurrentKafkaListenerContainerFactory<String, BookCreatedEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(bookEventConsumerFactory());
         factory.setCommonErrorHandler(errorHandler);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.getContainerProperties().setObservationEnabled(true);
+        return factory;
+    }
+
+    /**
+     * Фабрика для параллельной обработки записей вне потока потребителя.
+     * Записи подтверждаются вручную из рабочих потоков и в любом порядке (asyncAcks);
+     * контейнер коммитит смещение партиции только до первой неподтвержденной записи.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, BookCreatedEvent> bookEventParallelListenerContainerFactory
+            (DeadLetterPublishingRecoverer bookEventDlqRecoverer) {
+        log.info("Создаем bookEventParallelListenerContainerFactory...");
+
+        ConcurrentKafkaListenerContainerFactory<String, BookCreatedEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(bookEventConsumerFactory());
+        factory.setCommonErrorHandler(new DefaultErrorHandler(bookEventDlqRecoverer, new FixedBackOff(0, 2)));
         factory.setBatchListener(false);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
         factory.getContainerProperties().setObservationEnabled(true);
         return factory;
     }
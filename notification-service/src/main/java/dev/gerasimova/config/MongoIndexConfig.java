@@ -0,0 +1,122 @@
+package dev.gerasimova.config;
+
+import dev.gerasimova.model.Notification;
+import dev.gerasimova.model.NotificationDailyRollup;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Создает индексы коллекций notifications и notification_daily_rollups при старте сервиса
+ * (автоматическое создание индексов Spring Data MongoDB выключено по умолчанию).
+ * Индексы создаются после инициализации бинов, но до запуска Kafka listener-контейнеров:
+ * иначе при первом развертывании параллельные записи успевают сохранить дубликаты до появления
+ * уникального индекса eventId, и его построение завершается ошибкой.
+ * Сроки хранения задаются TTL-индексами; нулевой срок отключает удаление.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class MongoIndexConfig implements SmartInitializingSingleton {
+    public static final String EVENT_ID_INDEX = "eventId_unique";
+    public static final String RECEIVED_INDEX = "receivedAt_id";
+    public static final String BOOK_RECEIVED_INDEX = "bookId_receivedAt_id";
+    public static final String STATUS_RECEIVED_INDEX = "status_receivedAt_id";
+    public static final String RECEIVED_TTL_INDEX = "receivedAt_ttl";
+    public static final String ROLLUP_DAY_TTL_INDEX = "day_ttl";
+    public static final String ROLLUP_DAY_STATUS_INDEX = "day_status";
+    public static final String ROLLUP_AUTHOR_DAY_INDEX = "authorSurname_day";
+    private final MongoTemplate mongoTemplate;
+    @Value("${notification.retention.ttl:30d}")
+    private Duration notificationTtl;
+    @Value("${notification.rollup.retention.ttl:800d}")
+    private Duration rollupTtl;
+
+    /**
+     * Уникальный индекс по eventId делает повторную запись того же события невозможной.
+     * Индекс разреженный: старые уведомления без eventId в него не попадают.
+     * Составные индексы (фильтр, notificationReceivedAt, _id) покрывают фильтр, сортировку
+     * и условие keyset-пагинации запросов {@link dev.gerasimova.service.NotificationQueryService}.
+     * Индексы счетчиков покрывают выборку периода с фильтром по статусу или автору
+     * в {@link dev.gerasimova.service.NotificationRollupService}.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Notification.class);
+        indexOps.createIndex(new Index()
+                .on("eventId", Sort.Direction.ASC)
+                .named(EVENT_ID_INDEX)
+                .unique()
+                .sparse());
+        indexOps.createIndex(new Index()
+                .on("notificationReceivedAt", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named(RECEIVED_INDEX));
+        indexOps.createIndex(new Index()
+                .on("bookId", Sort.Direction.ASC)
+                .on("notificationReceivedAt", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named(BOOK_RECEIVED_INDEX));
+        indexOps.createIndex(new Index()
+                .on("status", Sort.Direction.ASC)
+                .on("notificationReceivedAt", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named(STATUS_RECEIVED_INDEX));
+        ensureTtlIndex(Notification.class, "notificationReceivedAt", RECEIVED_TTL_INDEX, notificationTtl);
+
+        IndexOperations rollupIndexOps = mongoTemplate.indexOps(NotificationDailyRollup.class);
+        ensureTtlIndex(NotificationDailyRollup.class, "day", ROLLUP_DAY_TTL_INDEX, rollupTtl);
+        rollupIndexOps.createIndex(new Index()
+                .on("day", Sort.Direction.ASC)
+                .on("status", Sort.Direction.ASC)
+                .named(ROLLUP_DAY_STATUS_INDEX));
+        rollupIndexOps.createIndex(new Index()
+                .on("authorSurname", Sort.Direction.ASC)
+                .on("day", Sort.Direction.ASC)
+                .named(ROLLUP_AUTHOR_DAY_INDEX));
+        log.info("Индексы коллекций notifications и notification_daily_rollups проверены, "
+                + "срок хранения уведомлений {}, счетчиков {}", notificationTtl, rollupTtl);
+    }
+
+    /**
+     * Создает TTL-индекс или приводит срок существующего индекса к настройке через collMod,
+     * так как createIndex с другим expireAfterSeconds завершается ошибкой конфликта опций.
+     * При нулевом сроке индекс удаляется: запросы по дате обслуживаются составными индексами.
+     */
+    private void ensureTtlIndex(Class<?> entityClass, String field, String name, Duration ttl) {
+        IndexOperations indexOps = mongoTemplate.indexOps(entityClass);
+        Optional<IndexInfo> existing = indexOps.getIndexInfo().stream()
+                .filter(info -> name.equals(info.getName()))
+                .findFirst();
+        if (ttl.isZero() || ttl.isNegative()) {
+            if (existing.isPresent()) {
+                indexOps.dropIndex(name);
+                log.info("TTL-индекс {} удален, срок хранения не ограничен", name);
+            }
+            return;
+        }
+        if (existing.isEmpty()) {
+            indexOps.createIndex(new Index()
+                    .on(field, Sort.Direction.ASC)
+                    .named(name)
+                    .expire(ttl));
+            return;
+        }
+        if (!existing.get().getExpireAfter().map(ttl::equals).orElse(false)) {
+            mongoTemplate.executeCommand(new Document("collMod", mongoTemplate.getCollectionName(entityClass))
+                    .append("index", new Document("name", name).append("expireAfterSeconds", ttl.toSeconds())));
+            log.info("Срок хранения TTL-индекса {} изменен на {}", name, ttl);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package dev.gerasimova.consumer;
+
+import dev.gerasimova.dto.BookCreatedEvent;
+import dev.gerasimova.dto.BulkInsertResult;
+import dev.gerasimova.model.Notification;
+import dev.gerasimova.service.NotificationConsumerService;
+import dev.gerasimova.service.ProcessedEventCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Пакетный слушатель BookCreatedEvent (notification.consumer.mode=batch, режим по умолчанию).
+ * Каждый poll преобразуется в уведомления и записывается в MongoDB одной bulk-операцией.
+ * Записи, которые не удалось разобрать, преобразовать или записать, по одной отправляются в DLQ,
+ * остальные записи пакета не повторяются. Смещения коммитятся контейнером после возврата из метода.
+ * Повторно доставленные события отбрасываются по eventId до обращения к MongoDB.
+ *
+ * @see BookEventConsumer
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "notification.consumer.mode", havingValue = "batch", matchIfMissing = true)
+public class BookEventBatchConsumer {
+    private final NotificationConsumerService notificationConsumerService;
+    private final DeadLetterPublishingRecoverer bookEventDlqRecoverer;
+    private final ProcessedEventCache processedEventCache;
+
+    @KafkaListener(topics = "book_events",
+            containerFactory = "bookEventBatchListenerContainerFactory")
+    public void handleBookCreatedEvents(List<ConsumerRecord<String, BookCreatedEvent>> records) {
+        List<ConsumerRecord<String, BookCreatedEvent>> accepted = new ArrayList<>(records.size());
+        List<Notification> notifications = new ArrayList<>(records.size());
+        Set<String> batchEventIds = new HashSet<>();
+        int duplicates = 0;
+        for (ConsumerRecord<String, BookCreatedEvent> record : records) {
+            if (record.value() == null) {
+                sendToDlq(record, new IllegalArgumentException("Не удалось десериализовать BookCreatedEvent"));
+                continue;
+            }
+            String eventId = record.value().getEventId();
+            if (processedEventCache.isProcessed(eventId) || (eventId != null && !batchEventIds.add(eventId))) {
+                duplicates++;
+                continue;
+            }
+            try {
+                notifications.add(new Notification(record.value()));
+                accepted.add(record);
+            } catch (RuntimeException e) {
+                sendToDlq(record, e);
+            }
+        }
+
+        BulkInsertResult result = notificationConsumerService.persistAll(notifications);
+        result.failures().forEach((index, message) ->
+                sendToDlq(accepted.get(index), new IllegalStateException(message)));
+
+        log.info("Обработан пакет BookCreatedEvent: получено {}, сохранено {}, повторов отброшено {}, в DLQ {}",
+                records.size(), result.inserted(), duplicates,
+                records.size() - accepted.size() - duplicates + result.failures().size());
+    }
+
+    private void sendToDlq(ConsumerRecord<String, BookCreatedEvent> record, Exception e) {
+        log.warn("Запись {}-{}@{} отправлена в DLQ: {}",
+                record.topic(), record.partition(), record.offset(), e.getMessage());
+        bookEventDlqRecoverer.accept(record, e);
+    }
+}
@@ -1,32 +1,42 @@
 package dev.gerasimova.consumer;
 
 import dev.gerasimova.dto.BookCreatedEvent;
-import dev.gerasimova.service.NotificationConsumerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.CompletableFuture;
-
+/**
+ * Параллельный слушатель BookCreatedEvent (notification.consumer.mode=parallel).
+ * Записи передаются {@link OrderedEventDispatcher} и обрабатываются параллельно с сохранением
+ * порядка по bookId; смещения коммитятся только после сохранения записей.
+ *
+ * @see BookEventBatchConsumer
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "notification.consumer.mode", havingValue = "parallel")
 public class BookEventConsumer {
-    private final NotificationConsumerService notificationConsumerService;
-    @KafkaListener(topics = "book_events",
-            containerFactory = "dlqKafkaListenerContainerFactory")
-    public void handleBookCreatedEvent(BookCreatedEvent event) {
-        log.info("Получен BookCreatedEvent: {}", event);
-        CompletableFuture<Void> future = notificationConsumerService
-                .processBookCreatedEvent(event)
-                .thenAccept(savedNotification -> {
-                    log.info("Асинхронная задача успешно завершена для Book ID: {}",
-                            savedNotification.getBookId());
-                })
-                .exceptionally(throwable -> {
-                    log.error("Ошибка асинхронной задачи: {}", throwable.getMessage());
-                    return null;
-                });
+    public static final String LISTENER_ID = "book-events-parallel";
+    private final OrderedEventDispatcher orderedEventDispatcher;
+    private final DeadLetterPublishingRecoverer bookEventDlqRecoverer;
+    @KafkaListener(id = LISTENER_ID, idIsGroup = false, topics = "book_events",
+            containerFactory = "bookEventParallelListenerContainerFactory")
+    public void handleBookCreatedEvent(ConsumerRecord<String, BookCreatedEvent> record,
+                                       Acknowledgment acknowledgment) {
+        log.debug("Получен BookCreatedEvent: {}", record.value());
+        if (record.value() == null) {
+            log.warn("Запись {}-{}@{} не десериализована, отправляем в DLQ",
+                    record.topic(), record.partition(), record.offset());
+            bookEventDlqRecoverer.accept(record, new IllegalArgumentException("Не удалось десериализовать BookCreatedEvent"));
+            acknowledgment.acknowledge();
+            return;
+        }
+        orderedEventDispatcher.dispatch(record, acknowledgment);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,255 @@
+package dev.gerasimova.consumer;
+
+import dev.gerasimova.dto.BookCreatedEvent;
+import dev.gerasimova.model.Notification;
+import dev.gerasimova.service.NotificationConsumerService;
+import dev.gerasimova.service.ProcessedEventCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Распределяет записи BookCreatedEvent по ограниченному пулу рабочих потоков.
+ * Записи одной книги (по bookId) всегда попадают в одну полосу - однопоточный исполнитель
+ * с ограниченной очередью, поэтому порядок событий книги сохраняется, а разные книги
+ * обрабатываются параллельно. Запись подтверждается только после сохранения в MongoDB
+ * (или отправки в DLQ), поэтому смещение не коммитится раньше, чем событие сохранено.
+ * <p>
+ * Противодавление: контейнер ставится на паузу при числе незавершенных записей выше max-in-flight,
+ * при EWMA задержки MongoDB выше max-latency или когда в очереди какой-либо полосы больше
+ * queue-capacity записей. Очередь полосы вмещает queue-capacity плюс max-poll-records записей,
+ * поэтому остаток уже полученного poll помещается в нее целиком, даже если все записи
+ * относятся к одной книге: поток потребителя не блокируется дольше max.poll.interval.ms.
+ * Контейнер возобновляется, когда незавершенных записей не больше половины лимита,
+ * а очереди всех полос снова не длиннее queue-capacity.
+ *
+ * @see BookEventConsumer
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "notification.consumer.mode", havingValue = "parallel")
+public class OrderedEventDispatcher {
+    private static final double LATENCY_EWMA_ALPHA = 0.2;
+    private final NotificationConsumerService notificationConsumerService;
+    private final ProcessedEventCache processedEventCache;
+    private final DeadLetterPublishingRecoverer bookEventDlqRecoverer;
+    private final KafkaListenerEndpointRegistry registry;
+    private final ThreadPoolExecutor[] lanes;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Timer persistTimer;
+    private final int maxInFlight;
+    private final int queueCapacity;
+    private final long maxLatencyNanos;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private volatile double latencyEwmaNanos;
+    private volatile boolean running = true;
+
+    public OrderedEventDispatcher(NotificationConsumerService notificationConsumerService,
+                                  ProcessedEventCache processedEventCache,
+                                  DeadLetterPublishingRecoverer bookEventDlqRecoverer,
+                                  KafkaListenerEndpointRegistry registry,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notification.consumer.parallel.workers:8}") int workers,
+                                  @Value("${notification.consumer.parallel.queue-capacity:100}") int queueCapacity,
+                                  @Value("${notification.consumer.max-poll-records:500}") int maxPollRecords,
+                                  @Value("${notification.consumer.parallel.max-in-flight:500}") int maxInFlight,
+                                  @Value("${notification.consumer.parallel.max-latency-ms:500}") long maxLatencyMs,
+                                  @Value("${notification.consumer.parallel.max-attempts:3}") int maxAttempts,
+                                  @Value("${notification.consumer.parallel.retry-backoff-ms:1000}") long retryBackoffMs) {
+        this.notificationConsumerService = notificationConsumerService;
+        this.processedEventCache = processedEventCache;
+        this.bookEventDlqRecoverer = bookEventDlqRecoverer;
+        this.registry = registry;
+        this.maxInFlight = maxInFlight;
+        this.queueCapacity = queueCapacity;
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMs);
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.lanes = new ThreadPoolExecutor[workers];
+        for (int i = 0; i < workers; i++) {
+            int lane = i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity + maxPollRecords),
+                    runnable -> new Thread(runnable, "book-event-lane-" + lane),
+                    OrderedEventDispatcher::waitForCapacity);
+        }
+        this.persistTimer = Timer.builder("notification.consumer.persist").register(meterRegistry);
+        Gauge.builder("notification.consumer.in_flight", inFlight, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            lane.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Ставит запись в полосу ее книги. Вызывается из потока потребителя.
+     *
+     * @param record запись с десериализованным событием
+     * @param acknowledgment подтверждение записи, вызывается после сохранения
+     */
+    public void dispatch(ConsumerRecord<String, BookCreatedEvent> record, Acknowledgment acknowledgment) {
+        int lane = Math.floorMod(Objects.hashCode(record.value().getBookId()), lanes.length);
+        inFlight.incrementAndGet();
+        try {
+            lanes[lane].execute(() -> process(record, acknowledgment));
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            throw e;
+        }
+        applyBackpressure();
+    }
+
+    private void process(ConsumerRecord<String, BookCreatedEvent> record, Acknowledgment acknowledgment) {
+        try {
+            if (persistWithRetries(record) || sendToDlq(record)) {
+                acknowledgment.acknowledge();
+            }
+        } finally {
+            inFlight.decrementAndGet();
+            applyBackpressure();
+        }
+    }
+
+    /**
+     * @return true, если событие сохранено (или уже было сохранено ранее)
+     */
+    private boolean persistWithRetries(ConsumerRecord<String, BookCreatedEvent> record) {
+        BookCreatedEvent event = record.value();
+        if (processedEventCache.isProcessed(event.getEventId())) {
+            return true;
+        }
+        for (int attempt = 1; attempt <= maxAttempts && running; attempt++) {
+            long start = System.nanoTime();
+            try {
+                notificationConsumerService.persist(new Notification(event));
+                recordLatency(System.nanoTime() - start);
+                return true;
+            } catch (RuntimeException e) {
+                recordLatency(System.nanoTime() - start);
+                log.warn("Попытка {} сохранения события книги {} не удалась: {}",
+                        attempt, event.getBookId(), e.getMessage());
+                if (attempt < maxAttempts && !sleep(retryBackoffMs)) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Отправляет запись в DLQ, повторяя отправку, пока Kafka недоступна.
+     * Без успешной отправки запись не подтверждается и будет доставлена повторно.
+     */
+    private boolean sendToDlq(ConsumerRecord<String, BookCreatedEvent> record) {
+        while (running) {
+            try {
+                bookEventDlqRecoverer.accept(record,
+                        new IllegalStateException("Не удалось сохранить уведомление после " + maxAttempts + " попыток"));
+                log.warn("Запись {}-{}@{} отправлена в DLQ", record.topic(), record.partition(), record.offset());
+                return true;
+            } catch (RuntimeException e) {
+                log.error("Не удалось отправить запись {}-{}@{} в DLQ: {}",
+                        record.topic(), record.partition(), record.offset(), e.getMessage());
+                if (!sleep(retryBackoffMs)) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        persistTimer.record(nanos, TimeUnit.NANOSECONDS);
+        latencyEwmaNanos = latencyEwmaNanos == 0
+                ? nanos
+                : latencyEwmaNanos + LATENCY_EWMA_ALPHA * (nanos - latencyEwmaNanos);
+    }
+
+    /**
+     * Ставит контейнер на паузу при насыщении и возобновляет его после разгрузки.
+     * Когда незавершенных записей нет, контейнер возобновляется независимо от последней задержки.
+     * Вызывается из потока потребителя после каждой записи, поэтому к следующему poll
+     * пауза уже запрошена, если очередь какой-либо полосы превысила queue-capacity.
+     */
+    private synchronized void applyBackpressure() {
+        MessageListenerContainer container = registry.getListenerContainer(BookEventConsumer.LISTENER_ID);
+        if (container == null) {
+            return;
+        }
+        int current = inFlight.get();
+        boolean slow = latencyEwmaNanos > maxLatencyNanos;
+        int longestQueue = longestLaneQueue();
+        boolean laneFull = longestQueue > queueCapacity;
+        if (!container.isPauseRequested() && (current >= maxInFlight || (slow && current > 0) || laneFull)) {
+            log.info("Пауза потребления book_events: незавершенных записей {}, задержка MongoDB {} мс, "
+                            + "самая длинная очередь полосы {}",
+                    current, TimeUnit.NANOSECONDS.toMillis((long) latencyEwmaNanos), longestQueue);
+            container.pause();
+        } else if (container.isPauseRequested() && current <= maxInFlight / 2 && (!slow || current == 0)
+                && !laneFull) {
+            log.info("Возобновление потребления book_events: незавершенных записей {}", current);
+            container.resume();
+        }
+    }
+
+    private int longestLaneQueue() {
+        int longest = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            longest = Math.max(longest, lane.getQueue().size());
+        }
+        return longest;
+    }
+
+    /**
+     * Страховка на случай, если запас очереди в max-poll-records все же исчерпан:
+     * поток потребителя ждет места, запись не отбрасывается.
+     */
+    private static void waitForCapacity(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Полоса обработки остановлена");
+        }
+        log.warn("Очередь полосы заполнена, поток потребителя ждет места");
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Прервано ожидание места в очереди", e);
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package dev.gerasimova.controller;
+
+import dev.gerasimova.dto.DlqReplayRequest;
+import dev.gerasimova.dto.DlqReplayStatus;
+import dev.gerasimova.service.DlqReplayService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Контроллер повторной обработки записей book_events_dlq.
+ */
+@RestController
+@RequestMapping("/dlq/replay")
+@RequiredArgsConstructor
+@Tag(name = "DLQ Replay", description = "API для повторной обработки событий из book_events_dlq")
+public class DlqReplayController {
+    private final DlqReplayService dlqReplayService;
+
+    /**
+     * Запускает повторную обработку диапазона DLQ в фоне.
+     * @param request - диапазон и ограничения скорости
+     * @return - состояние запуска
+     */
+    @Operation(
+            summary = "Запустить повторную обработку DLQ",
+            description = "Читает book_events_dlq с заданного смещения или времени и сохраняет уведомления с ограничением скорости"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Обработка запущена",
+                    content = @Content(schema = @Schema(implementation = DlqReplayStatus.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Невалидные данные запроса"),
+            @ApiResponse(responseCode = "409", description = "Предыдущая обработка еще выполняется")
+    })
+    @PostMapping
+    public ResponseEntity<DlqReplayStatus> start(@Valid @RequestBody DlqReplayRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(dlqReplayService.start(request));
+    }
+
+    /**
+     * Возвращает прогресс запуска.
+     * @param replayId - идентификатор запуска
+     * @return - состояние запуска
+     */
+    @Operation(summary = "Прогресс повторной обработки DLQ")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Состояние запуска"),
+            @ApiResponse(responseCode = "404", description = "Запуск не найден")
+    })
+    @GetMapping("/{replayId}")
+    public ResponseEntity<DlqReplayStatus> status(@PathVariable String replayId) {
+        return ResponseEntity.of(dlqReplayService.status(replayId));
+    }
+
+    /**
+     * Останавливает запуск.
+     * @param replayId - идентификатор запуска
+     * @return - состояние запуска
+     */
+    @Operation(summary = "Остановить повторную обработку DLQ")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Остановка запрошена"),
+            @ApiResponse(responseCode = "404", description = "Запуск не найден")
+    })
+    @DeleteMapping("/{replayId}")
+    public ResponseEntity<DlqReplayStatus> cancel(@PathVariable String replayId) {
+        return ResponseEntity.of(dlqReplayService.cancel(replayId));
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<String> handleConflict(IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+}
@@ -0,0 +1,113 @@
+package dev.gerasimova.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gerasimova.dto.NotificationPage;
+import dev.gerasimova.dto.NotificationView;
+import dev.gerasimova.service.NotificationQueryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Контроллер чтения сохраненных уведомлений.
+ */
+@RestController
+@RequestMapping("/notifications")
+@RequiredArgsConstructor
+@Tag(name = "Notifications", description = "API для чтения сохраненных уведомлений")
+public class NotificationQueryController {
+    private static final int STREAM_FLUSH_EVERY = 500;
+    private final NotificationQueryService notificationQueryService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Возвращает страницу уведомлений от новых к старым.
+     * @param bookId - фильтр по книге
+     * @param status - фильтр по статусу
+     * @param cursor - курсор предыдущей страницы
+     * @param size - размер страницы
+     * @param fields - поля проекции
+     * @return - страница уведомлений
+     */
+    @Operation(
+            summary = "Страница уведомлений",
+            description = "Keyset-пагинация по (notificationReceivedAt, id); для следующей страницы передайте nextCursor"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Страница уведомлений",
+                    content = @Content(schema = @Schema(implementation = NotificationPage.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор, размер или поле проекции")
+    })
+    @GetMapping
+    public NotificationPage findNotifications(
+            @RequestParam(required = false) Long bookId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @Parameter(description = "Поля проекции через запятую, например bookId,title,status")
+            @RequestParam(required = false, defaultValue = "") List<String> fields) {
+        return notificationQueryService.findPage(bookId, status, cursor, size, fields);
+    }
+
+    /**
+     * Потоково выгружает все уведомления со статусом в формате NDJSON.
+     * @param status - статус
+     * @param fields - поля проекции
+     * @return - поток уведомлений, по одному JSON на строку
+     */
+    @Operation(
+            summary = "Выгрузка уведомлений по статусу",
+            description = "Потоковая выгрузка в NDJSON без загрузки всей выборки в память"
+    )
+    @ApiResponse(responseCode = "200", description = "Поток уведомлений")
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamNotifications(
+            @RequestParam String status,
+            @Parameter(description = "Поля проекции через запятую, например bookId,title,status")
+            @RequestParam(required = false, defaultValue = "") List<String> fields) {
+        notificationQueryService.validateFields(fields);
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<NotificationView> notifications = notificationQueryService.streamByStatus(status, fields)) {
+                Iterator<NotificationView> iterator = notifications.iterator();
+                int written = 0;
+                while (iterator.hasNext()) {
+                    outputStream.write(objectMapper.writeValueAsBytes(iterator.next()));
+                    outputStream.write('\n');
+                    if (++written % STREAM_FLUSH_EVERY == 0) {
+                        outputStream.flush();
+                    }
+                }
+                outputStream.flush();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+}
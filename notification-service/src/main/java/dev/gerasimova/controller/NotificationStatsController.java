@@ -0,0 +1,74 @@
+package dev.gerasimova.controller;
+
+import dev.gerasimova.dto.RollupCount;
+import dev.gerasimova.service.NotificationRollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Контроллер агрегатов по суточным счетчикам уведомлений.
+ */
+@RestController
+@RequestMapping("/notifications/stats")
+@RequiredArgsConstructor
+@Tag(name = "Notification Stats", description = "API для агрегатов по уведомлениям")
+public class NotificationStatsController {
+    private static final int DEFAULT_PERIOD_DAYS = 30;
+    private static final int MAX_LIMIT = 1000;
+    private final NotificationRollupService notificationRollupService;
+
+    /**
+     * Возвращает количество уведомлений за период с группировкой.
+     * @param from - первый день периода, по умолчанию 30 дней назад
+     * @param to - последний день периода, по умолчанию сегодня
+     * @param groupBy - группировка: DAY, AUTHOR или STATUS
+     * @param authorSurname - фильтр по автору
+     * @param status - фильтр по статусу
+     * @param limit - максимальное количество строк
+     * @return - агрегаты
+     */
+    @Operation(
+            summary = "Количество уведомлений за период",
+            description = "Суммирует суточные счетчики по дням, авторам или статусам; сырые уведомления не читаются"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Агрегаты за период"),
+            @ApiResponse(responseCode = "400", description = "Некорректный период или лимит")
+    })
+    @GetMapping
+    public List<RollupCount> stats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Группировка: DAY, AUTHOR или STATUS")
+            @RequestParam(defaultValue = "DAY") NotificationRollupService.GroupBy groupBy,
+            @RequestParam(required = false) String authorSurname,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit должен быть от 1 до " + MAX_LIMIT);
+        }
+        LocalDate periodEnd = to != null ? to : LocalDate.now();
+        LocalDate periodStart = from != null ? from : periodEnd.minusDays(DEFAULT_PERIOD_DAYS - 1);
+        return notificationRollupService.aggregate(periodStart, periodEnd, groupBy, authorSurname, status, limit);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+}
@@ -10,6 +10,10 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 public class BookCreatedEvent {
+    /**
+     * Идентификатор события, назначенный в outbox book-service; одинаков при повторных доставках.
+     */
+    private String eventId;
     private Long bookId;
     private String title;
     private String authorSurname;
@@ -0,0 +1,12 @@
+package dev.gerasimova.dto;
+
+import java.util.Map;
+
+/**
+ * Результат пакетной записи уведомлений.
+ *
+ * @param inserted количество новых документов (без уже сохраненных ранее событий)
+ * @param failures причины ошибок по индексам документов в пакете
+ */
+public record BulkInsertResult(int inserted, Map<Integer, String> failures) {
+}
@@ -0,0 +1,42 @@
+package dev.gerasimova.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+import java.time.Instant;
+
+/**
+ * Дто запуска повторной обработки записей book_events_dlq.
+ * Начало диапазона задается смещением или временем, конец - смещением, временем
+ * или (если не задан) текущим концом топика на момент запуска.
+ *
+ * @param fromOffset - первое смещение (включительно)
+ * @param toOffset - последнее смещение (включительно)
+ * @param fromTime - время записи, с которого начинать, если fromOffset не задан
+ * @param toTime - время записи, после которого остановиться
+ * @param ratePerSecond - ограничение скорости, записей в секунду
+ * @param parallelism - число параллельных записей в MongoDB
+ */
+@Schema(description = "Запрос на повторную обработку записей DLQ")
+public record DlqReplayRequest(
+        @Schema(description = "Первое смещение (включительно)", example = "0")
+        @Min(value = 0, message = "fromOffset не может быть отрицательным")
+        Long fromOffset,
+        @Schema(description = "Последнее смещение (включительно)", example = "50000")
+        @Min(value = 0, message = "toOffset не может быть отрицательным")
+        Long toOffset,
+        @Schema(description = "Время записи, с которого начинать", example = "2026-10-18T10:00:00Z")
+        Instant fromTime,
+        @Schema(description = "Время записи, после которого остановиться", example = "2026-10-18T12:00:00Z")
+        Instant toTime,
+        @Schema(description = "Ограничение скорости, записей в секунду", example = "500")
+        @Min(value = 1, message = "ratePerSecond должен быть положительным")
+        @Max(value = 10000, message = "ratePerSecond не может быть больше 10000")
+        Integer ratePerSecond,
+        @Schema(description = "Число параллельных записей в MongoDB", example = "4")
+        @Min(value = 1, message = "parallelism должен быть положительным")
+        @Max(value = 64, message = "parallelism не может быть больше 64")
+        Integer parallelism
+) {
+}
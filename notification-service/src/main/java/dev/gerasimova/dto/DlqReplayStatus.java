@@ -0,0 +1,37 @@
+package dev.gerasimova.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Дто состояния повторной обработки DLQ.
+ *
+ * @param replayId - идентификатор запуска
+ * @param state - RUNNING, COMPLETED, CANCELLED или FAILED
+ * @param total - количество записей в диапазоне (оценка по смещениям)
+ * @param scanned - прочитано записей
+ * @param replayed - сохранено уведомлений
+ * @param duplicates - пропущено уже сохраненных событий
+ * @param failed - записей, которые снова не удалось обработать
+ * @param failedOffsets - смещения неудачных записей (первые 100)
+ * @param startedAt - время запуска
+ * @param finishedAt - время завершения
+ * @param error - причина остановки для FAILED
+ */
+@Schema(description = "Состояние повторной обработки DLQ")
+public record DlqReplayStatus(
+        String replayId,
+        String state,
+        long total,
+        long scanned,
+        long replayed,
+        long duplicates,
+        long failed,
+        List<String> failedOffsets,
+        Instant startedAt,
+        Instant finishedAt,
+        String error
+) {
+}
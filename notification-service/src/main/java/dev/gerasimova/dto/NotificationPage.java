@@ -0,0 +1,21 @@
+package dev.gerasimova.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Дто страницы уведомлений с keyset-курсором.
+ *
+ * @param items - уведомления страницы, от новых к старым
+ * @param nextCursor - курсор следующей страницы или null
+ * @param hasNext - есть ли следующая страница
+ */
+@Schema(description = "Страница уведомлений")
+public record NotificationPage(
+        List<NotificationView> items,
+        @Schema(description = "Курсор следующей страницы", example = "MjAyNi0xMC0xOFQxMjowMDowMHw2NzEy")
+        String nextCursor,
+        boolean hasNext
+) {
+}
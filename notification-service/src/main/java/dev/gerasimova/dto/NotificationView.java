@@ -0,0 +1,39 @@
+package dev.gerasimova.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import dev.gerasimova.model.Notification;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Дто уведомления для чтения. Поля, не вошедшие в проекцию запроса, не выводятся.
+ */
+@Schema(description = "Уведомление (поля вне проекции не выводятся)")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record NotificationView(
+        String id,
+        String eventId,
+        Long bookId,
+        String title,
+        String authorSurname,
+        Instant bookCreatedAt,
+        LocalDateTime notificationReceivedAt,
+        String status,
+        String message
+) {
+    public static NotificationView from(Notification notification) {
+        return new NotificationView(
+                notification.getId(),
+                notification.getEventId(),
+                notification.getBookId(),
+                notification.getTitle(),
+                notification.getAuthorSurname(),
+                notification.getBookCreatedAt(),
+                notification.getNotificationReceivedAt(),
+                notification.getStatus(),
+                notification.getMessage()
+        );
+    }
+}
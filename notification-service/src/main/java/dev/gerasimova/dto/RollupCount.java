@@ -0,0 +1,13 @@
+package dev.gerasimova.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Агрегат счетчиков уведомлений по одному значению группировки.
+ *
+ * @param key значение группировки: день (yyyy-MM-dd), фамилия автора или статус
+ * @param count количество уведомлений
+ */
+@Schema(description = "Количество уведомлений по значению группировки")
+public record RollupCount(String key, long count) {
+}
@@ -2,6 +2,7 @@ package dev.gerasimova.model;
 
 import dev.gerasimova.dto.BookCreatedEvent;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -9,11 +10,15 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 @Document(collection = "notifications")
 public class Notification {
     @Id
     private String id;
-    
+    /**
+     * Идентификатор исходного события, уникальный индекс eventId_unique.
+     */
+    private String eventId;
     private Long bookId;
     private String title;
     private String authorSurname;
@@ -23,6 +28,7 @@ public class Notification {
     private String message;
 
     public Notification(BookCreatedEvent event) {
+        this.eventId = event.getEventId();
         this.bookId = event.getBookId();
         this.title = event.getTitle();
         this.authorSurname = event.getAuthorSurname();
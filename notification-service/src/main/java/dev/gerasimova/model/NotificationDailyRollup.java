@@ -0,0 +1,24 @@
+package dev.gerasimova.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+
+/**
+ * Счетчик уведомлений за день по автору и статусу.
+ * Идентификатор составной ("день|автор|статус"), поэтому счетчик обновляется upsert'ом с $inc.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "notification_daily_rollups")
+public class NotificationDailyRollup {
+    @Id
+    private String id;
+    private LocalDate day;
+    private String authorSurname;
+    private String status;
+    private long count;
+}
@@ -1,9 +1,10 @@
 package dev.gerasimova.repository;
 
 import dev.gerasimova.model.Notification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
-import java.util.List;
 public interface NotificationRepository extends MongoRepository<Notification, String> {
-    List<Notification> findByBookId(Long bookId);
-    List<Notification> findByStatus(String status);
-}
\ No newline at end of file
+    Slice<Notification> findByBookId(Long bookId, Pageable pageable);
+    Slice<Notification> findByStatus(String status, Pageable pageable);
+}
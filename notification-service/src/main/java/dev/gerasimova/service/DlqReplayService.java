@@ -0,0 +1,321 @@
+package dev.gerasimova.service;
+
+import dev.gerasimova.config.KafkaDlqConfig;
+import dev.gerasimova.dto.BookCreatedEvent;
+import dev.gerasimova.dto.DlqReplayRequest;
+import dev.gerasimova.dto.DlqReplayStatus;
+import dev.gerasimova.model.Notification;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Повторная обработка записей book_events_dlq после устранения причины ошибок (например, недоступности MongoDB).
+ * Записи читаются пакетами отдельным потребителем без коммита смещений (assign + seek)
+ * и сохраняются обычным идемпотентным путем {@link NotificationConsumerService#persist(Notification)},
+ * поэтому повторный запуск по тому же диапазону не создает дубликатов.
+ * Скорость ограничена ratePerSecond, число одновременных записей в MongoDB - parallelism.
+ * Одновременно выполняется не более одного запуска; хранится состояние последних history-size запусков.
+ */
+@Slf4j
+@Service
+public class DlqReplayService {
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final int MAX_REPORTED_FAILURES = 100;
+    private static final int MAX_EMPTY_POLLS = 10;
+    private final ConsumerFactory<String, BookCreatedEvent> bookEventConsumerFactory;
+    private final NotificationConsumerService notificationConsumerService;
+    private final ProcessedEventCache processedEventCache;
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "dlq-replay"));
+    private final Map<String, ReplayJob> jobs;
+    private final AtomicReference<ReplayJob> current = new AtomicReference<>();
+    private final int batchSize;
+    private final int defaultRate;
+    private final int defaultParallelism;
+
+    public DlqReplayService(ConsumerFactory<String, BookCreatedEvent> bookEventConsumerFactory,
+                            NotificationConsumerService notificationConsumerService,
+                            ProcessedEventCache processedEventCache,
+                            @Value("${notification.dlq-replay.batch-size:500}") int batchSize,
+                            @Value("${notification.dlq-replay.rate-per-second:500}") int defaultRate,
+                            @Value("${notification.dlq-replay.parallelism:4}") int defaultParallelism,
+                            @Value("${notification.dlq-replay.history-size:20}") int historySize) {
+        this.bookEventConsumerFactory = bookEventConsumerFactory;
+        this.notificationConsumerService = notificationConsumerService;
+        this.processedEventCache = processedEventCache;
+        this.batchSize = batchSize;
+        this.defaultRate = defaultRate;
+        this.defaultParallelism = defaultParallelism;
+        this.jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ReplayJob> eldest) {
+                return size() > Math.max(1, historySize);
+            }
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        ReplayJob job = current.get();
+        if (job != null) {
+            job.cancelled = true;
+        }
+        runner.shutdown();
+    }
+
+    /**
+     * Запускает повторную обработку в фоне.
+     *
+     * @param request диапазон и ограничения
+     * @return начальное состояние запуска
+     * @throws IllegalStateException если предыдущий запуск еще выполняется
+     */
+    public DlqReplayStatus start(DlqReplayRequest request) {
+        ReplayJob job = new ReplayJob(UUID.randomUUID().toString(), request,
+                request.ratePerSecond() != null ? request.ratePerSecond() : defaultRate,
+                request.parallelism() != null ? request.parallelism() : defaultParallelism);
+        if (!current.compareAndSet(null, job)) {
+            throw new IllegalStateException("Повторная обработка DLQ уже выполняется: " + current.get().id);
+        }
+        jobs.put(job.id, job);
+        runner.execute(() -> run(job));
+        log.info("Запущена повторная обработка DLQ {}: {}", job.id, request);
+        return job.status();
+    }
+
+    public Optional<DlqReplayStatus> status(String replayId) {
+        return Optional.ofNullable(jobs.get(replayId)).map(ReplayJob::status);
+    }
+
+    /**
+     * Останавливает запуск после текущей записи. Уже сохраненные уведомления остаются.
+     *
+     * @return состояние запуска или пустой Optional, если запуск не найден
+     */
+    public Optional<DlqReplayStatus> cancel(String replayId) {
+        ReplayJob job = jobs.get(replayId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.cancelled = true;
+        return Optional.of(job.status());
+    }
+
+    private void run(ReplayJob job) {
+        ExecutorService workers = Executors.newFixedThreadPool(job.parallelism);
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(batchSize));
+        try (Consumer<String, BookCreatedEvent> consumer = bookEventConsumerFactory.createConsumer(
+                "notification_dlq_replay", "dlq-replay", null, overrides)) {
+            Map<TopicPartition, Long> stopOffsets = assign(consumer, job);
+            job.total.set(stopOffsets.keySet().stream()
+                    .mapToLong(partition -> Math.max(0, stopOffsets.get(partition) - consumer.position(partition)))
+                    .sum());
+            Semaphore permits = new Semaphore(job.parallelism);
+            long intervalNanos = TimeUnit.SECONDS.toNanos(1) / job.ratePerSecond;
+            long nextSlot = System.nanoTime();
+            int emptyPolls = 0;
+
+            while (!stopOffsets.isEmpty() && !job.cancelled && emptyPolls < MAX_EMPTY_POLLS) {
+                ConsumerRecords<String, BookCreatedEvent> records = consumer.poll(POLL_TIMEOUT);
+                emptyPolls = records.isEmpty() ? emptyPolls + 1 : 0;
+                for (ConsumerRecord<String, BookCreatedEvent> record : records) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    Long stopOffset = stopOffsets.get(partition);
+                    if (job.cancelled || stopOffset == null || record.offset() >= stopOffset || afterRange(record, job)) {
+                        continue;
+                    }
+                    job.scanned.incrementAndGet();
+                    long waitNanos = nextSlot - System.nanoTime();
+                    if (waitNanos > 0) {
+                        TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    }
+                    nextSlot = Math.max(nextSlot, System.nanoTime()) + intervalNanos;
+                    permits.acquire();
+                    workers.execute(() -> {
+                        try {
+                            replay(job, record);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+                permits.acquire(job.parallelism);
+                permits.release(job.parallelism);
+                for (TopicPartition partition : new ArrayList<>(stopOffsets.keySet())) {
+                    if (consumer.position(partition) >= stopOffsets.get(partition) || job.finishedByTime.contains(partition)) {
+                        stopOffsets.remove(partition);
+                        consumer.pause(Collections.singleton(partition));
+                    }
+                }
+            }
+            job.finish(job.cancelled ? "CANCELLED" : "COMPLETED", null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish("CANCELLED", "Прервано");
+        } catch (Exception e) {
+            log.error("Повторная обработка DLQ {} остановлена с ошибкой", job.id, e);
+            job.finish("FAILED", e.getMessage());
+        } finally {
+            workers.shutdown();
+            current.compareAndSet(job, null);
+            log.info("Повторная обработка DLQ {} завершена: {}", job.id, job.status());
+        }
+    }
+
+    /**
+     * Назначает потребителю все партиции DLQ и устанавливает начальные смещения.
+     *
+     * @return смещение остановки (исключительно) для каждой партиции с записями в диапазоне
+     */
+    private Map<TopicPartition, Long> assign(Consumer<String, BookCreatedEvent> consumer, ReplayJob job) {
+        List<TopicPartition> partitions = consumer.partitionsFor(KafkaDlqConfig.DLQ_TOPIC).stream()
+                .map(info -> new TopicPartition(info.topic(), info.partition()))
+                .toList();
+        consumer.assign(partitions);
+        Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+        Map<TopicPartition, Long> beginningOffsets = consumer.beginningOffsets(partitions);
+
+        Map<TopicPartition, OffsetAndTimestamp> byTime = Map.of();
+        DlqReplayRequest request = job.request;
+        if (request.fromOffset() == null && request.fromTime() != null) {
+            Map<TopicPartition, Long> timestamps = new HashMap<>();
+            partitions.forEach(partition -> timestamps.put(partition, request.fromTime().toEpochMilli()));
+            byTime = consumer.offsetsForTimes(timestamps);
+        }
+
+        Map<TopicPartition, Long> stopOffsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            long start = beginningOffsets.get(partition);
+            if (request.fromOffset() != null) {
+                start = Math.max(start, request.fromOffset());
+            } else if (request.fromTime() != null) {
+                OffsetAndTimestamp found = byTime.get(partition);
+                start = found != null ? found.offset() : endOffsets.get(partition);
+            }
+            long stop = endOffsets.get(partition);
+            if (request.toOffset() != null) {
+                stop = Math.min(stop, request.toOffset() + 1);
+            }
+            if (start < stop) {
+                consumer.seek(partition, start);
+                stopOffsets.put(partition, stop);
+            } else {
+                consumer.pause(Collections.singleton(partition));
+            }
+        }
+        return stopOffsets;
+    }
+
+    private static boolean afterRange(ConsumerRecord<String, BookCreatedEvent> record, ReplayJob job) {
+        if (job.request.toTime() != null && record.timestamp() > job.request.toTime().toEpochMilli()) {
+            job.finishedByTime.add(new TopicPartition(record.topic(), record.partition()));
+            return true;
+        }
+        return false;
+    }
+
+    private void replay(ReplayJob job, ConsumerRecord<String, BookCreatedEvent> record) {
+        BookCreatedEvent event = record.value();
+        if (event == null) {
+            job.fail(record, "запись не десериализуется");
+            return;
+        }
+        if (processedEventCache.isProcessed(event.getEventId())) {
+            job.duplicates.incrementAndGet();
+            return;
+        }
+        try {
+            Notification saved = notificationConsumerService.persist(new Notification(event));
+            if (saved.getId() == null) {
+                job.duplicates.incrementAndGet();
+            } else {
+                job.replayed.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            job.fail(record, e.getMessage());
+        }
+    }
+
+    /**
+     * Состояние одного запуска. Счетчики обновляются рабочими потоками.
+     */
+    private static final class ReplayJob {
+        private final String id;
+        private final DlqReplayRequest request;
+        private final int ratePerSecond;
+        private final int parallelism;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong replayed = new AtomicLong();
+        private final AtomicLong duplicates = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<String> failedOffsets = Collections.synchronizedList(new ArrayList<>());
+        private final Set<TopicPartition> finishedByTime = ConcurrentHashMap.newKeySet();
+        private volatile boolean cancelled;
+        private volatile String state = "RUNNING";
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private ReplayJob(String id, DlqReplayRequest request, int ratePerSecond, int parallelism) {
+            this.id = id;
+            this.request = request;
+            this.ratePerSecond = ratePerSecond;
+            this.parallelism = parallelism;
+        }
+
+        private void fail(ConsumerRecord<?, ?> record, String reason) {
+            failed.incrementAndGet();
+            if (failedOffsets.size() < MAX_REPORTED_FAILURES) {
+                failedOffsets.add(record.partition() + "@" + record.offset());
+            }
+            log.warn("Повторная обработка записи {}-{}@{} не удалась: {}",
+                    record.topic(), record.partition(), record.offset(), reason);
+        }
+
+        private void finish(String finalState, String reason) {
+            error = reason;
+            finishedAt = Instant.now();
+            state = finalState;
+        }
+
+        private DlqReplayStatus status() {
+            List<String> offsets;
+            synchronized (failedOffsets) {
+                offsets = List.copyOf(failedOffsets);
+            }
+            return new DlqReplayStatus(id, state, total.get(), scanned.get(), replayed.get(),
+                    duplicates.get(), failed.get(), offsets, startedAt, finishedAt, error);
+        }
+    }
+}
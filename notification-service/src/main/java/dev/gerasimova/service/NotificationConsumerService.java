@@ -1,39 +1,143 @@
 package dev.gerasimova.service;
 
-import dev.gerasimova.dto.BookCreatedEvent;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.mongodb.client.result.UpdateResult;
+import dev.gerasimova.dto.BulkInsertResult;
 import dev.gerasimova.model.Notification;
 import dev.gerasimova.repository.NotificationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.bson.Document;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.CompletableFuture;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Сохранение уведомлений о созданных книгах.
+ * Уведомления с eventId записываются upsert'ом по уникальному индексу eventId с $setOnInsert:
+ * повторная доставка того же события (повтор DefaultErrorHandler, ребалансировка) не создает дубликат.
+ * Недавно сохраненные eventId отсекаются {@link ProcessedEventCache} без обращения к MongoDB.
+ * Для впервые сохраненных уведомлений увеличиваются суточные счетчики {@link NotificationRollupService}.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationConsumerService {
+    private static final int DUPLICATE_KEY = 11000;
     private final NotificationRepository notificationRepository;
-    @Async
-    public CompletableFuture<Notification> processBookCreatedEvent(BookCreatedEvent event) {
-        try {
-            Notification notification = new Notification(event);
+    private final MongoTemplate mongoTemplate;
+    private final ProcessedEventCache processedEventCache;
+    private final NotificationRollupService notificationRollupService;
 
-            Notification savedNotification = notificationRepository.save(notification);
+    /**
+     * Сохраняет одно уведомление идемпотентно.
+     *
+     * @param notification уведомление
+     * @return уведомление; id пустой, если событие уже было сохранено ранее
+     */
+    public Notification persist(Notification notification) {
+        if (notification.getEventId() == null) {
+            Notification saved = notificationRepository.save(notification);
+            notificationRollupService.record(List.of(saved));
+            return saved;
+        }
+        UpdateResult result = mongoTemplate.upsert(byEventId(notification.getEventId()),
+                insertOnly(notification), Notification.class);
+        if (result.getUpsertedId() != null) {
+            notification.setId(result.getUpsertedId().asObjectId().getValue().toHexString());
+            notificationRollupService.record(List.of(notification));
+        }
+        processedEventCache.markProcessed(notification.getEventId());
+        return notification;
+    }
 
-            log.info("Уведомление асинхронно сохранено в MongoDB. ID: {}, Book ID: {}",
-                    savedNotification.getId(), savedNotification.getBookId());
+    /**
+     * Записывает пакет уведомлений одной неупорядоченной bulk-операцией (один запрос к MongoDB).
+     * Уже сохраненные события (в том числе при гонке upsert'ов - ошибка duplicate key)
+     * не считаются ошибкой. Ошибки отдельных документов не прерывают запись остальных
+     * и возвращаются по индексам. Ошибки, не относящиеся к конкретным документам
+     * (недоступность MongoDB, write concern), пробрасываются, чтобы пакет был повторен целиком.
+     *
+     * @param notifications уведомления пакета
+     * @return количество новых документов и ошибки по индексам
+     */
+    public BulkInsertResult persistAll(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return new BulkInsertResult(0, Map.of());
+        }
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class);
+        for (Notification notification : notifications) {
+            if (notification.getEventId() == null) {
+                operations.insert(notification);
+            } else {
+                operations.upsert(byEventId(notification.getEventId()), insertOnly(notification));
+            }
+        }
 
-            log.info("   Book ID: {}", event.getBookId());
-            log.info("   Title: {}", event.getTitle());
-            log.info("   Author: {}", event.getAuthorSurname());
-            log.info("   CreatedAt: {}", event.getCreatedAt());
-            return CompletableFuture.completedFuture(savedNotification);
+        BulkWriteResult result;
+        Set<Integer> errorIndexes = new HashSet<>();
+        Map<Integer, String> failures = new HashMap<>();
+        try {
+            result = operations.execute();
+        } catch (BulkOperationException e) {
+            if (e.getErrors().isEmpty()) {
+                throw e;
+            }
+            for (BulkWriteError error : e.getErrors()) {
+                errorIndexes.add(error.getIndex());
+                if (error.getCode() != DUPLICATE_KEY) {
+                    failures.put(error.getIndex(), error.getMessage());
+                }
+            }
+            result = e.getResult();
+        }
 
-        } catch (Exception e) {
-            log.error("Ошибка при асинхронном сохранении уведомления в MongoDB: {}", e.getMessage(), e);
-            return CompletableFuture.failedFuture(e);
+        Set<Integer> upserted = new HashSet<>();
+        for (BulkWriteUpsert upsert : result.getUpserts()) {
+            upserted.add(upsert.getIndex());
+        }
+        List<Notification> created = new ArrayList<>();
+        for (int i = 0; i < notifications.size(); i++) {
+            Notification notification = notifications.get(i);
+            if (!failures.containsKey(i)) {
+                processedEventCache.markProcessed(notification.getEventId());
+            }
+            boolean inserted = notification.getEventId() == null ? !errorIndexes.contains(i) : upserted.contains(i);
+            if (inserted) {
+                created.add(notification);
+            }
         }
+        notificationRollupService.record(created);
+        return new BulkInsertResult(result.getInsertedCount() + result.getUpserts().size(), failures);
+    }
+
+    private static Query byEventId(String eventId) {
+        return Query.query(Criteria.where("eventId").is(eventId));
+    }
+
+    /**
+     * Строит обновление, которое заполняет документ только при вставке.
+     */
+    private Update insertOnly(Notification notification) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(notification, document);
+        document.remove("_id");
+        document.remove("eventId");
+        Update update = new Update();
+        document.forEach(update::setOnInsert);
+        return update;
     }
 }
@@ -0,0 +1,145 @@
+package dev.gerasimova.service;
+
+import dev.gerasimova.dto.NotificationPage;
+import dev.gerasimova.dto.NotificationView;
+import dev.gerasimova.model.Notification;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Чтение уведомлений с keyset-пагинацией по (notificationReceivedAt, id), от новых к старым.
+ * Следующая страница выбирается условием "строго после курсора" по составному индексу,
+ * поэтому стоимость запроса не зависит от номера страницы. Поля можно ограничить проекцией.
+ *
+ * @see dev.gerasimova.config.MongoIndexConfig
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationQueryService {
+    public static final int MAX_PAGE_SIZE = 500;
+    private static final String RECEIVED_AT = "notificationReceivedAt";
+    private static final Set<String> PROJECTABLE_FIELDS = Set.of(
+            "eventId", "bookId", "title", "authorSurname", "bookCreatedAt", RECEIVED_AT, "status", "message");
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Direction.DESC, RECEIVED_AT)
+            .and(Sort.by(Sort.Direction.DESC, "id"));
+
+    private final MongoTemplate mongoTemplate;
+    @Value("${notification.query.stream-batch-size:1000}")
+    private int streamBatchSize;
+
+    /**
+     * Возвращает страницу уведомлений.
+     *
+     * @param bookId фильтр по книге, может быть null
+     * @param status фильтр по статусу, может быть null
+     * @param cursor курсор из предыдущей страницы или null для первой страницы
+     * @param size размер страницы, от 1 до 500
+     * @param fields поля проекции или пустой список для всех полей
+     * @return страница и курсор следующей страницы
+     * @throws IllegalArgumentException если курсор, размер или поля некорректны
+     */
+    public NotificationPage findPage(Long bookId, String status, String cursor, int size, List<String> fields) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        Query query = buildQuery(bookId, status, cursor != null ? Cursor.decode(cursor) : null, fields)
+                .limit(size + 1);
+        List<Notification> found = mongoTemplate.find(query, Notification.class);
+        boolean hasNext = found.size() > size;
+        List<Notification> page = hasNext ? found.subList(0, size) : found;
+        String nextCursor = hasNext ? Cursor.of(page.get(page.size() - 1)).encode() : null;
+        return new NotificationPage(page.stream().map(NotificationView::from).toList(), nextCursor, hasNext);
+    }
+
+    /**
+     * Потоково читает все уведомления со статусом через курсор MongoDB.
+     * Поток нужно закрыть после чтения.
+     *
+     * @param status статус
+     * @param fields поля проекции или пустой список для всех полей
+     * @return поток уведомлений от новых к старым
+     */
+    public Stream<NotificationView> streamByStatus(String status, List<String> fields) {
+        Query query = buildQuery(null, status, null, fields).cursorBatchSize(streamBatchSize);
+        return mongoTemplate.stream(query, Notification.class).map(NotificationView::from);
+    }
+
+    /**
+     * Проверяет поля проекции до начала потоковой выгрузки, чтобы ошибка вернулась статусом 400.
+     *
+     * @param fields поля проекции
+     * @throws IllegalArgumentException если поле недоступно
+     */
+    public void validateFields(List<String> fields) {
+        for (String field : fields) {
+            if (!PROJECTABLE_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Поле " + field + " недоступно, допустимые поля: " + PROJECTABLE_FIELDS);
+            }
+        }
+    }
+
+    private Query buildQuery(Long bookId, String status, Cursor cursor, List<String> fields) {
+        List<Criteria> conditions = new ArrayList<>(3);
+        if (bookId != null) {
+            conditions.add(Criteria.where("bookId").is(bookId));
+        }
+        if (status != null) {
+            conditions.add(Criteria.where("status").is(status));
+        }
+        if (cursor != null) {
+            conditions.add(new Criteria().orOperator(
+                    Criteria.where(RECEIVED_AT).lt(cursor.receivedAt()),
+                    new Criteria().andOperator(
+                            Criteria.where(RECEIVED_AT).is(cursor.receivedAt()),
+                            Criteria.where("id").lt(cursor.id()))));
+        }
+        Query query = conditions.isEmpty()
+                ? new Query()
+                : new Query(new Criteria().andOperator(conditions));
+        query.with(KEYSET_SORT);
+        if (!fields.isEmpty()) {
+            validateFields(fields);
+            fields.forEach(field -> query.fields().include(field));
+            query.fields().include(RECEIVED_AT);
+        }
+        return query;
+    }
+
+    /**
+     * Позиция последнего уведомления страницы. Кодируется в Base64 URL без выравнивания.
+     */
+    private record Cursor(LocalDateTime receivedAt, ObjectId id) {
+        static Cursor of(Notification notification) {
+            return new Cursor(notification.getNotificationReceivedAt(), new ObjectId(notification.getId()));
+        }
+
+        static Cursor decode(String value) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8).split("\\|", 2);
+                return new Cursor(LocalDateTime.parse(parts[0]), new ObjectId(parts[1]));
+            } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Некорректный курсор: " + value, e);
+            }
+        }
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((receivedAt + "|" + id.toHexString()).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package dev.gerasimova.service;
+
+import dev.gerasimova.dto.RollupCount;
+import dev.gerasimova.model.Notification;
+import dev.gerasimova.model.NotificationDailyRollup;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Суточные счетчики уведомлений по автору и статусу в коллекции notification_daily_rollups.
+ * Счетчики увеличиваются при записи только для новых уведомлений, поэтому повторная доставка
+ * события их не искажает. Запросы агрегатов читают не больше (дней * авторов * статусов) документов
+ * и не зависят от объема коллекции notifications, сырые уведомления которой удаляются по TTL.
+ *
+ * @see dev.gerasimova.config.MongoIndexConfig
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationRollupService {
+    private static final String UNKNOWN = "UNKNOWN";
+    private final MongoTemplate mongoTemplate;
+    @Value("${notification.rollup.max-range-days:366}")
+    private int maxRangeDays;
+
+    /**
+     * Группировка агрегатов.
+     */
+    public enum GroupBy {
+        DAY("day"), AUTHOR("authorSurname"), STATUS("status");
+
+        private final String field;
+
+        GroupBy(String field) {
+            this.field = field;
+        }
+    }
+
+    /**
+     * Увеличивает счетчики для новых уведомлений одной неупорядоченной bulk-операцией.
+     * Уведомления одного дня, автора и статуса сворачиваются в одно $inc.
+     * Ошибка не прерывает обработку события: уведомление уже сохранено, а повторная запись
+     * счетчики не увеличит, поэтому при сбое счетчик за день может оказаться меньше фактического.
+     *
+     * @param notifications впервые сохраненные уведомления
+     */
+    public void record(Collection<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        Map<String, Long> increments = new LinkedHashMap<>();
+        Map<String, Notification> samples = new LinkedHashMap<>();
+        for (Notification notification : notifications) {
+            String id = rollupId(notification);
+            increments.merge(id, 1L, Long::sum);
+            samples.putIfAbsent(id, notification);
+        }
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificationDailyRollup.class);
+        increments.forEach((id, increment) -> {
+            Notification sample = samples.get(id);
+            operations.upsert(Query.query(Criteria.where("id").is(id)), new Update()
+                    .inc("count", increment)
+                    .setOnInsert("day", sample.getNotificationReceivedAt().toLocalDate())
+                    .setOnInsert("authorSurname", orUnknown(sample.getAuthorSurname()))
+                    .setOnInsert("status", orUnknown(sample.getStatus())));
+        });
+        try {
+            operations.execute();
+        } catch (Exception e) {
+            log.error("Не удалось обновить суточные счетчики уведомлений ({} счетчиков)", increments.size(), e);
+        }
+    }
+
+    /**
+     * Суммирует счетчики за период с группировкой по дню, автору или статусу.
+     *
+     * @param from первый день периода включительно
+     * @param to последний день периода включительно
+     * @param groupBy группировка
+     * @param authorSurname фильтр по автору, может быть null
+     * @param status фильтр по статусу, может быть null
+     * @param limit максимальное количество строк
+     * @return агрегаты; по дням - в хронологическом порядке, иначе - по убыванию количества
+     * @throws IllegalArgumentException если период пустой или длиннее допустимого
+     */
+    public List<RollupCount> aggregate(LocalDate from, LocalDate to, GroupBy groupBy,
+                                       String authorSurname, String status, int limit) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Начало периода позже окончания");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new IllegalArgumentException("Период не может быть длиннее " + maxRangeDays + " дней");
+        }
+        Criteria criteria = Criteria.where("day").gte(from).lte(to);
+        if (authorSurname != null) {
+            criteria = criteria.and("authorSurname").is(authorSurname);
+        }
+        if (status != null) {
+            criteria = criteria.and("status").is(status);
+        }
+        Sort sort = groupBy == GroupBy.DAY
+                ? Sort.by(Sort.Direction.ASC, "_id")
+                : Sort.by(Sort.Direction.DESC, "count").and(Sort.by(Sort.Direction.ASC, "_id"));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.group(groupBy.field).sum("count").as("count"),
+                Aggregation.sort(sort),
+                Aggregation.limit(limit));
+        List<RollupCount> result = new ArrayList<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, NotificationDailyRollup.class, Document.class)) {
+            result.add(new RollupCount(keyOf(row.get("_id")), ((Number) row.get("count")).longValue()));
+        }
+        return result;
+    }
+
+    private static String rollupId(Notification notification) {
+        return notification.getNotificationReceivedAt().toLocalDate()
+                + "|" + orUnknown(notification.getAuthorSurname())
+                + "|" + orUnknown(notification.getStatus());
+    }
+
+    private static String keyOf(Object value) {
+        if (value instanceof Date date) {
+            return LocalDate.ofInstant(date.toInstant(), ZoneId.systemDefault()).toString();
+        }
+        return String.valueOf(value);
+    }
+
+    private static String orUnknown(String value) {
+        return value != null ? value : UNKNOWN;
+    }
+}
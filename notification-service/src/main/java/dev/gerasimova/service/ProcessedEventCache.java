@@ -0,0 +1,41 @@
+package dev.gerasimova.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Локальный LRU-кэш идентификаторов недавно сохраненных событий.
+ * Позволяет отбросить повторную доставку без обращения к MongoDB; при промахе
+ * (другой узел, вытеснение, перезапуск) дубликат все равно отсекает уникальный индекс eventId.
+ * Идентификаторы добавляются только после успешной записи, поэтому неудачная запись будет повторена.
+ */
+@Component
+public class ProcessedEventCache {
+    private final Cache<String, Boolean> eventIds;
+
+    public ProcessedEventCache(@Value("${notification.dedup.cache-size:100000}") long maxSize,
+                               @Value("${notification.dedup.ttl:1h}") Duration ttl) {
+        this.eventIds = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * @param eventId идентификатор события, может быть null
+     * @return true, если событие недавно сохранено этим узлом
+     */
+    public boolean isProcessed(String eventId) {
+        return eventId != null && eventIds.getIfPresent(eventId) != null;
+    }
+
+    public void markProcessed(String eventId) {
+        if (eventId != null) {
+            eventIds.put(eventId, Boolean.TRUE);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package dev.gerasimova.consumer;
+
+import dev.gerasimova.dto.BookCreatedEvent;
+import dev.gerasimova.model.Notification;
+import dev.gerasimova.service.NotificationConsumerService;
+import dev.gerasimova.service.ProcessedEventCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+/**
+ * Unit-тесты для OrderedEventDispatcher.
+ * MongoDB, подтверждения Kafka и контейнер слушателя заменены моками; состояние паузы
+ * контейнера хранится в флаге, который переключают pause() и resume().
+ *
+ * @see OrderedEventDispatcher
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OrderedEventDispatcherTest {
+    private static final long WAIT_MS = 5000;
+
+    @Mock
+    private NotificationConsumerService notificationConsumerService;
+    @Mock
+    private DeadLetterPublishingRecoverer bookEventDlqRecoverer;
+    @Mock
+    private KafkaListenerEndpointRegistry registry;
+    @Mock
+    private MessageListenerContainer container;
+    private final AtomicBoolean paused = new AtomicBoolean();
+    private final AtomicLong offsets = new AtomicLong();
+    private final CountDownLatch persistGate = new CountDownLatch(1);
+    private OrderedEventDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(registry.getListenerContainer(BookEventConsumer.LISTENER_ID)).thenReturn(container);
+        Mockito.when(container.isPauseRequested()).thenAnswer(invocation -> paused.get());
+        Mockito.doAnswer(invocation -> {
+            paused.set(true);
+            return null;
+        }).when(container).pause();
+        Mockito.doAnswer(invocation -> {
+            paused.set(false);
+            return null;
+        }).when(container).resume();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        persistGate.countDown();
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+    /**
+     * Проверяет, что события одной книги сохраняются в порядке получения,
+     * а все записи подтверждаются после сохранения.
+     */
+    @Test
+    void eventsOfOneBookKeepOrder() throws InterruptedException {
+        dispatcher = dispatcher(4, 100, 500, 1000);
+        Map<Long, List<String>> persisted = new ConcurrentHashMap<>();
+        Mockito.when(notificationConsumerService.persist(any(Notification.class))).thenAnswer(invocation -> {
+            Notification notification = invocation.getArgument(0);
+            Thread.sleep(notification.getBookId());
+            persisted.computeIfAbsent(notification.getBookId(), id -> new ArrayList<>()).add(notification.getEventId());
+            return notification;
+        });
+        CountDownLatch acknowledged = new CountDownLatch(30);
+        Map<Long, List<String>> expected = new ConcurrentHashMap<>();
+
+        for (int i = 0; i < 10; i++) {
+            for (long bookId = 1; bookId <= 3; bookId++) {
+                String eventId = bookId + "-" + i;
+                expected.computeIfAbsent(bookId, id -> new ArrayList<>()).add(eventId);
+                dispatcher.dispatch(record(eventId, bookId), acknowledged::countDown);
+            }
+        }
+
+        assertTrue(acknowledged.await(WAIT_MS, TimeUnit.MILLISECONDS));
+        assertEquals(expected, persisted);
+    }
+    /**
+     * Проверяет, что запись подтверждается только после сохранения в MongoDB.
+     */
+    @Test
+    void acknowledgesOnlyAfterPersist() throws InterruptedException {
+        dispatcher = dispatcher(2, 100, 500, 1000);
+        blockPersist();
+        Acknowledgment acknowledgment = Mockito.mock(Acknowledgment.class);
+
+        dispatcher.dispatch(record("event-1", 1L), acknowledgment);
+
+        Mockito.verify(acknowledgment, Mockito.after(200).never()).acknowledge();
+        persistGate.countDown();
+        Mockito.verify(acknowledgment, Mockito.timeout(WAIT_MS)).acknowledge();
+    }
+    /**
+     * Проверяет, что после исчерпания попыток запись отправляется в DLQ и только затем подтверждается.
+     */
+    @Test
+    void exhaustedRetriesGoToDlq() {
+        dispatcher = dispatcher(2, 100, 500, 1000);
+        Mockito.when(notificationConsumerService.persist(any(Notification.class)))
+                .thenThrow(new IllegalStateException("MongoDB недоступна"));
+        Acknowledgment acknowledgment = Mockito.mock(Acknowledgment.class);
+        ConsumerRecord<String, BookCreatedEvent> record = record("event-1", 1L);
+
+        dispatcher.dispatch(record, acknowledgment);
+
+        Mockito.verify(acknowledgment, Mockito.timeout(WAIT_MS)).acknowledge();
+        Mockito.verify(notificationConsumerService, Mockito.times(3)).persist(any(Notification.class));
+        Mockito.verify(bookEventDlqRecoverer).accept(eq(record), any(Exception.class));
+    }
+    /**
+     * Проверяет, что при одной "горячей" книге поток потребителя не блокируется:
+     * контейнер ставится на паузу, когда очередь полосы превышает queue-capacity,
+     * остаток poll помещается в запас очереди, а после разгрузки контейнер возобновляется.
+     */
+    @Test
+    void hotLanePausesContainerWithoutBlockingConsumer() throws InterruptedException {
+        int maxPollRecords = 5;
+        dispatcher = dispatcher(1, 2, maxPollRecords, 1000);
+        blockPersist();
+        CountDownLatch acknowledged = new CountDownLatch(maxPollRecords);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < maxPollRecords; i++) {
+                dispatcher.dispatch(record("event-" + i, 1L), acknowledged::countDown);
+            }
+        });
+
+        assertTrue(paused.get());
+        persistGate.countDown();
+        assertTrue(acknowledged.await(WAIT_MS, TimeUnit.MILLISECONDS));
+        Mockito.verify(container, Mockito.timeout(WAIT_MS)).resume();
+        assertFalse(paused.get());
+    }
+    /**
+     * Проверяет паузу при max-in-flight незавершенных записей и возобновление после их сохранения.
+     */
+    @Test
+    void maxInFlightPausesAndResumes() throws InterruptedException {
+        dispatcher = dispatcher(4, 100, 500, 4);
+        blockPersist();
+        CountDownLatch acknowledged = new CountDownLatch(4);
+
+        for (long bookId = 1; bookId <= 3; bookId++) {
+            dispatcher.dispatch(record("event-" + bookId, bookId), acknowledged::countDown);
+        }
+        assertFalse(paused.get());
+        dispatcher.dispatch(record("event-4", 4L), acknowledged::countDown);
+        assertTrue(paused.get());
+
+        persistGate.countDown();
+        assertTrue(acknowledged.await(WAIT_MS, TimeUnit.MILLISECONDS));
+        Mockito.verify(container, Mockito.timeout(WAIT_MS)).resume();
+    }
+
+    private OrderedEventDispatcher dispatcher(int workers, int queueCapacity, int maxPollRecords, int maxInFlight) {
+        return new OrderedEventDispatcher(notificationConsumerService,
+                new ProcessedEventCache(1000, Duration.ofHours(1)), bookEventDlqRecoverer, registry,
+                new SimpleMeterRegistry(), workers, queueCapacity, maxPollRecords, maxInFlight,
+                60_000, 3, 1);
+    }
+
+    private void blockPersist() {
+        Mockito.when(notificationConsumerService.persist(any(Notification.class))).thenAnswer(invocation -> {
+            persistGate.await();
+            return invocation.getArgument(0);
+        });
+    }
+
+    private ConsumerRecord<String, BookCreatedEvent> record(String eventId, Long bookId) {
+        BookCreatedEvent event = new BookCreatedEvent(eventId, bookId, "Война и мир", "Толстой", Instant.now());
+        return new ConsumerRecord<>("book_events", 0, offsets.getAndIncrement(), String.valueOf(bookId), event);
+    }
+}
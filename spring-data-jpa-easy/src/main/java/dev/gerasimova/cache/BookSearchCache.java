@@ -0,0 +1,172 @@
+package dev.gerasimova.cache;
+
+import dev.gerasimova.dto.BookResponseDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Кэш страниц результатов поиска книг с инвалидацией по тегам.
+ * Каждая страница зависит от набора тегов (all, author:&lt;фамилия&gt;, title:&lt;название&gt;),
+ * у каждого тега в Redis хранится счетчик поколений, который входит в ключ кэша.
+ * При изменении книги увеличиваются счетчики только затронутых тегов: старые страницы
+ * становятся недостижимы и истекают по TTL, остальные страницы продолжают отдаваться из кэша.
+ *
+ * @see TwoLevelCacheManager
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookSearchCache {
+    public static final String CACHE_NAME = "bookSearch";
+    private static final String GENERATION_KEY_PREFIX = "book-search:generation:";
+    private static final String TAG_ALL = "all";
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * Закэшированная страница: содержимое и общее количество элементов.
+     */
+    public record CachedPage(List<BookResponseDto> content, long totalElements) {
+    }
+
+    /**
+     * Возвращает страницу из кэша или загружает ее и кладет в кэш.
+     * Если счетчики поколений недоступны, страница загружается без кэширования.
+     *
+     * @param authorSurname фамилия автора из запроса, может быть null
+     * @param title название книги из запроса, может быть null
+     * @param pageable параметры страницы
+     * @param loader загрузка страницы из БД
+     * @return страница книг
+     */
+    public Page<BookResponseDto> getOrLoad(String authorSurname, String title, Pageable pageable,
+                                           Supplier<Page<BookResponseDto>> loader) {
+        List<String> tags = tagsOf(authorSurname, title);
+        List<String> generations;
+        try {
+            generations = redisTemplate.opsForValue().multiGet(tags.stream()
+                    .map(tag -> GENERATION_KEY_PREFIX + tag)
+                    .toList());
+        } catch (Exception e) {
+            log.warn("Счетчики поколений кэша поиска недоступны: {}", e.getMessage());
+            return loader.get();
+        }
+        if (generations == null) {
+            return loader.get();
+        }
+
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < tags.size(); i++) {
+            String generation = generations.get(i);
+            key.append(tags.get(i)).append('@').append(generation != null ? generation : "0").append('|');
+        }
+        key.append(pageable.getPageNumber()).append('|')
+                .append(pageable.getPageSize()).append('|')
+                .append(pageable.getSort());
+
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        CachedPage cached = cache.get(key.toString(), CachedPage.class);
+        if (cached != null) {
+            return new PageImpl<>(cached.content(), pageable, cached.totalElements());
+        }
+        Page<BookResponseDto> page = loader.get();
+        cache.put(key.toString(), new CachedPage(page.getContent(), page.getTotalElements()));
+        return page;
+    }
+
+    /**
+     * Инвалидирует страницы, на которые влияет книга с указанными автором и названием.
+     * Счетчики увеличиваются после коммита транзакции, чтобы в кэш не попали незакоммиченные данные.
+     *
+     * @param authorSurname фамилия автора книги
+     * @param title название книги
+     */
+    public void invalidate(String authorSurname, String title) {
+        Set<String> tags = new LinkedHashSet<>(tagsOf(authorSurname, title));
+        tags.add(TAG_ALL);
+        scheduleBump(tags);
+    }
+
+    /**
+     * Инвалидирует страницы для пачки книг (массовая загрузка).
+     * Теги собираются в множество, и все счетчики увеличиваются одним конвейером Redis.
+     *
+     * @param authorSurnames фамилии авторов загруженных книг
+     * @param titles названия загруженных книг
+     */
+    public void invalidate(Collection<String> authorSurnames, Collection<String> titles) {
+        Set<String> tags = new LinkedHashSet<>();
+        for (String authorSurname : authorSurnames) {
+            tags.addAll(tagsOf(authorSurname, null));
+        }
+        for (String title : titles) {
+            tags.addAll(tagsOf(null, title));
+        }
+        tags.add(TAG_ALL);
+        scheduleBump(tags);
+    }
+
+    private void scheduleBump(Set<String> tags) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpGenerations(tags);
+                }
+            });
+        } else {
+            bumpGenerations(tags);
+        }
+    }
+
+    private void bumpGenerations(Set<String> tags) {
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (String tag : tags) {
+                    stringConnection.incr(GENERATION_KEY_PREFIX + tag);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Не удалось инвалидировать кэш поиска для тегов {}", tags, e);
+        }
+    }
+
+    /**
+     * Определяет теги, от которых зависит результат поиска.
+     * Поиск без фильтров зависит от любого изменения (тег all).
+     */
+    private List<String> tagsOf(String authorSurname, String title) {
+        List<String> tags = new ArrayList<>(2);
+        if (authorSurname != null && !authorSurname.isBlank()) {
+            tags.add("author:" + authorSurname);
+        }
+        if (title != null && !title.isBlank()) {
+            tags.add("title:" + title);
+        }
+        if (tags.isEmpty()) {
+            tags.add(TAG_ALL);
+        }
+        return tags;
+    }
+}
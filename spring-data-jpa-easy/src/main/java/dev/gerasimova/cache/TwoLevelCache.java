@@ -0,0 +1,121 @@
+package dev.gerasimova.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Двухуровневый кэш: локальный ограниченный L1 (Caffeine) перед общим L2 (Redis).
+ * Чтение сначала проверяет L1 и только при промахе обращается к Redis.
+ * Удаление и очистка выполняются в обоих уровнях и рассылаются остальным репликам
+ * через {@link TwoLevelCacheManager}, чтобы они сбросили свои L1.
+ *
+ * @see TwoLevelCacheManager
+ */
+public class TwoLevelCache implements Cache {
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> local;
+    private final Cache remote;
+    private final TwoLevelCacheManager cacheManager;
+
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> local,
+                         Cache remote,
+                         TwoLevelCacheManager cacheManager) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = toLocalKey(key);
+        ValueWrapper cached = local.getIfPresent(localKey);
+        if (cached != null) {
+            return cached;
+        }
+        ValueWrapper remoteValue = remote.get(key);
+        if (remoteValue != null) {
+            local.put(localKey, new SimpleValueWrapper(remoteValue.get()));
+        }
+        return remoteValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Значение в кэше " + name + " не является " + type.getName());
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value = remote.get(key, valueLoader);
+        local.put(toLocalKey(key), new SimpleValueWrapper(value));
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(toLocalKey(key), new SimpleValueWrapper(value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        evictLocal(toLocalKey(key));
+        cacheManager.publishInvalidation(name, toLocalKey(key));
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        clearLocal();
+        cacheManager.publishInvalidation(name, null);
+    }
+
+    /**
+     * Удаляет значение только из локального уровня (по сообщению от другой реплики).
+     *
+     * @param localKey строковое представление ключа
+     */
+    void evictLocal(String localKey) {
+        local.invalidate(localKey);
+    }
+
+    /**
+     * Очищает только локальный уровень (по сообщению от другой реплики).
+     */
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    private static String toLocalKey(Object key) {
+        return String.valueOf(key);
+    }
+}
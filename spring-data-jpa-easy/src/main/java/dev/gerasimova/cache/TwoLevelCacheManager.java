@@ -0,0 +1,108 @@
+package dev.gerasimova.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Менеджер двухуровневых кэшей: оборачивает кэши Redis (L2) локальными кэшами Caffeine (L1).
+ * При удалении значения публикует сообщение в канал Redis pub/sub, остальные реплики
+ * получают его и сбрасывают свои L1. Устаревшее значение в L1 другой реплики живет
+ * не дольше задержки доставки сообщения, а при потере сообщения - не дольше TTL L1.
+ *
+ * @see TwoLevelCache
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+    private static final String SEPARATOR = "|";
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final long localMaxSize;
+    private final Duration localTtl;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager, StringRedisTemplate redisTemplate,
+                                String channel, long localMaxSize, Duration localTtl) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    private TwoLevelCache createCache(String name) {
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return new TwoLevelCache(name,
+                Caffeine.newBuilder()
+                        .maximumSize(localMaxSize)
+                        .expireAfterWrite(localTtl)
+                        .build(),
+                remote,
+                this);
+    }
+
+    /**
+     * Рассылает остальным репликам команду сбросить значение из L1.
+     * Ошибка публикации не прерывает операцию: L1 других реплик истечет по TTL.
+     *
+     * @param cacheName имя кэша
+     * @param key ключ или null для очистки всего кэша
+     */
+    void publishInvalidation(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(channel,
+                    instanceId + SEPARATOR + cacheName + SEPARATOR + (key != null ? key : ""));
+        } catch (Exception e) {
+            log.warn("Не удалось разослать инвалидацию кэша {} для ключа {}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    /**
+     * Обрабатывает сообщение об инвалидации от другой реплики.
+     * Собственные сообщения игнорируются - локальный уровень уже сброшен.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length != 3 || instanceId.equals(parts[0])) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (parts[2].isEmpty()) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[2]);
+        }
+        log.debug("Сброшен L1 кэша {} по ключу '{}' от реплики {}", parts[1], parts[2], parts[0]);
+    }
+}
@@ -0,0 +1,89 @@
+package dev.gerasimova.config;
+
+import dev.gerasimova.cache.BookSearchCache;
+import dev.gerasimova.cache.TwoLevelCacheManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+
+/**
+ * Конфигурационный класс для настройки кэширования.
+ * Кэши Redis (L2) оборачиваются локальными кэшами Caffeine (L1), инвалидация L1
+ * между репликами выполняется через канал Redis pub/sub.
+ *
+ * @see TwoLevelCacheManager
+ */
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+    @Value("${cache.near.max-size:10000}")
+    private long nearCacheMaxSize;
+    @Value("${cache.near.ttl:30s}")
+    private Duration nearCacheTtl;
+    @Value("${cache.near.channel:book-service-cache-invalidation}")
+    private String invalidationChannel;
+    @Value("${cache.search.ttl:10m}")
+    private Duration searchCacheTtl;
+
+    /**
+     * Создает менеджер кэшей Redis с параметрами spring.cache.redis.* и оборачивает его локальным уровнем.
+     *
+     * @return двухуровневый менеджер кэшей
+     */
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             CacheProperties cacheProperties,
+                                             StringRedisTemplate stringRedisTemplate) {
+        CacheProperties.Redis redisProperties = cacheProperties.getRedis();
+        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(RedisSerializer.json()));
+        if (redisProperties.getTimeToLive() != null) {
+            config = config.entryTtl(redisProperties.getTimeToLive());
+        }
+        if (redisProperties.getKeyPrefix() != null) {
+            config = config.prefixCacheNameWith(redisProperties.getKeyPrefix());
+        }
+        if (!redisProperties.isCacheNullValues()) {
+            config = config.disableCachingNullValues();
+        }
+        if (!redisProperties.isUseKeyPrefix()) {
+            config = config.disableKeyPrefix();
+        }
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(config)
+                .withCacheConfiguration(BookSearchCache.CACHE_NAME, config.entryTtl(searchCacheTtl))
+                .initialCacheNames(new LinkedHashSet<>(cacheProperties.getCacheNames()))
+                .build();
+        redisCacheManager.afterPropertiesSet();
+
+        return new TwoLevelCacheManager(redisCacheManager, stringRedisTemplate,
+                invalidationChannel, nearCacheMaxSize, nearCacheTtl);
+    }
+
+    /**
+     * Подписывает менеджер кэшей на канал инвалидации L1.
+     *
+     * @return контейнер слушателей Redis pub/sub
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(invalidationChannel));
+        return container;
+    }
+}
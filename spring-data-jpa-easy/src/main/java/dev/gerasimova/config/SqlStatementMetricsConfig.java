@@ -0,0 +1,31 @@
+package dev.gerasimova.config;
+
+import dev.gerasimova.metrics.SqlStatementMetricsFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Конфигурационный класс для учета SQL-запросов по HTTP-запросам.
+ * Хуки Hibernate подключаются в application.properties
+ * (hibernate.session_factory.statement_inspector и hibernate.session.events.auto).
+ *
+ * @see SqlStatementMetricsFilter
+ */
+@Configuration
+public class SqlStatementMetricsConfig {
+    /**
+     * Регистрирует фильтр метрик SQL первым в цепочке, чтобы учесть запросы фильтров безопасности.
+     *
+     * @return регистрация фильтра
+     */
+    @Bean
+    public FilterRegistrationBean<SqlStatementMetricsFilter> sqlStatementMetricsFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<SqlStatementMetricsFilter> registration =
+                new FilterRegistrationBean<>(new SqlStatementMetricsFilter(meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,94 @@
+package dev.gerasimova.controller;
+
+import dev.gerasimova.dto.BulkImportResponse;
+import dev.gerasimova.model.Book;
+import dev.gerasimova.model.ExportFormat;
+import dev.gerasimova.service.BookBulkImportService;
+import dev.gerasimova.service.BookExportService;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Контроллер для массовых операций с книгами.
+ *
+ * @see Book
+ */
+@RestController
+@RequestMapping("/api")
+@Tag(name = "Массовые операции с книгами", description = "API для загрузки и выгрузки каталога книг")
+@SecurityRequirement(name = "JWT")
+@RequiredArgsConstructor
+public class BookBulkController {
+    private final BookBulkImportService bookBulkImportService;
+    private final BookExportService bookExportService;
+    /**
+     * Endpoint для массовой загрузки книг в формате NDJSON.
+     * Тело запроса читается потоком, каждая строка - объект CreateBookDto.
+     *
+     * @param body - поток строк NDJSON.
+     * @return - отчет о загрузке с ошибками по строкам.
+     */
+    @Operation(summary = "Массовая загрузка книг",
+            description = "Принимает NDJSON (одна книга на строку) и сохраняет книги пачками. " +
+                    "Ошибочные строки не прерывают загрузку и возвращаются в отчете.")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Загрузка завершена",
+                    content = @Content(schema = @Schema(implementation = BulkImportResponse.class))
+            )
+    })
+    @PostMapping(value = "/books/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkImportResponse> importBooks(InputStream body) throws IOException {
+        return ResponseEntity.ok(bookBulkImportService.importBooks(body));
+    }
+    /**
+     * Endpoint для потоковой выгрузки всего каталога книг.
+     * Строки пишутся в ответ по мере чтения из БД, без постраничных запросов и COUNT.
+     *
+     * @param format - формат выгрузки: NDJSON или CSV.
+     * @param response - ответ, в который пишутся строки.
+     */
+    @Operation(summary = "Выгрузка каталога книг",
+            description = "Потоково отдает все книги в порядке id в формате NDJSON или CSV.")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Каталог выгружается в теле ответа",
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE),
+                            @Content(mediaType = "text/csv")
+                    }
+            )
+    })
+    @GetMapping("/books/export")
+    public void exportBooks(@Parameter(description = "Формат выгрузки", example = "NDJSON")
+                            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+                            HttpServletResponse response) throws IOException {
+        boolean csv = format == ExportFormat.CSV;
+        response.setCharacterEncoding("UTF-8");
+        response.setContentType(csv ? "text/csv" : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"books." + (csv ? "csv" : "ndjson") + "\"");
+        bookExportService.exportBooks(format, response.getOutputStream());
+    }
+}
@@ -7,8 +7,10 @@ import dev.gerasimova.dto.UpdateBookDto;
 import dev.gerasimova.dto.ValidationErrorResponse;
 import dev.gerasimova.dto.CreateBookWithAuthorDto;
 import dev.gerasimova.dto.PaginationParam;
+import dev.gerasimova.dto.CursorPageResponse;
 import dev.gerasimova.model.Author;
 import dev.gerasimova.model.Book;
+import dev.gerasimova.model.TitleSearchMode;
 import dev.gerasimova.service.BookService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -19,6 +21,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
@@ -101,6 +105,43 @@ public class BookController {
 
         return ResponseEntity.ok(bookService.searchBook(authorSurname, title, pagination));
     }
+    /**
+     * Endpoint для курсорной (keyset) пагинации по списку книг/книгам конкретного автора/книгам по названию.
+     * Следующая страница запрашивается по токену nextCursor из предыдущего ответа,
+     * поэтому глубокие страницы стоят столько же, сколько первая.
+     *
+     * @return - страница книг с токеном следующей страницы.
+     */
+    @Operation( summary = "Курсорная пагинация книг",
+            description = "Возвращает страницу книг без подсчета общего количества. " +
+                    "Сортировка допускается по полям id, title, yearRelease.")
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Успешный ответ",
+                    content = @Content(schema = @Schema(implementation = CursorPageResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Некорректный токен продолжения или сортировка",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/books/search/cursor")
+    public ResponseEntity<CursorPageResponse<BookResponseDto>> searchBookByCursor(
+            @Parameter(description = "Фамилия автора")
+            @RequestParam(required = false) String authorSurname,
+            @Parameter(description = "Название книги")
+            @RequestParam(required = false) String title,
+            @Parameter(description = "Токен продолжения из предыдущего ответа")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Количество книг на странице", example = "20")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            @Parameter(description = "Параметры сортировки", example = "title,asc")
+            @RequestParam(required = false) String sort) {
+
+        return ResponseEntity.ok(bookService.searchBookByCursor(authorSurname, title, cursor, size, sort));
+    }
     /**
      * Endpoint для сохранения новой книги в хранилище.
      *
@@ -192,13 +233,15 @@ public class BookController {
         return ResponseEntity.noContent().build();
     }
     /**
-     * Endpoint для получения списка книг по части названия книги, без учета регистра,
-     * отсортированный по году издания.
+     * Endpoint для поиска книг по названию без учета регистра с ранжированием по релевантности
+     * и постраничной выдачей.
      *
-     * @return - список книг.
+     * @return - страница списка книг.
      */
-    @Operation( summary = "Получение книг по части названия ",
-            description = "Возвращает все книги по части названия, сортирует по году издания.")
+    @Operation( summary = "Поиск книг по названию",
+            description = "Возвращает книги по части названия (SUBSTRING), началу названия (PREFIX) " +
+                    "или нечеткому совпадению (FUZZY), отсортированные по релевантности и году издания. " +
+                    "Выдача ограничена первыми 1000 результатами.")
     @ApiResponses({
             @ApiResponse(
                     responseCode = "200",
@@ -207,8 +250,16 @@ public class BookController {
             )
     })
     @GetMapping("/books/search/title")
-    public  ResponseEntity<List<BookResponseDto>> searchBooksByTitle(@RequestParam String title) {
-        return  ResponseEntity.ok(bookService.searchByTitleOrderByYear(title));
+    public  ResponseEntity<List<BookResponseDto>> searchBooksByTitle(
+            @Parameter(description = "Поисковая строка")
+            @RequestParam String title,
+            @Parameter(description = "Режим поиска", example = "SUBSTRING")
+            @RequestParam(defaultValue = "SUBSTRING") TitleSearchMode mode,
+            @Parameter(description = "Номер страницы", example = "0")
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @Parameter(description = "Количество книг на странице", example = "20")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(50) int size) {
+        return  ResponseEntity.ok(bookService.searchByTitle(title, mode, page, size));
     }
     /**
      * Endpoint для сохранения книги и автора книги.
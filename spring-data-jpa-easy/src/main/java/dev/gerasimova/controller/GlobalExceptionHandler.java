@@ -4,6 +4,7 @@ import dev.gerasimova.dto.ErrorResponse;
 import dev.gerasimova.dto.ValidationErrorResponse;
 import dev.gerasimova.exception.AuthorException;
 import dev.gerasimova.exception.BookException;
+import dev.gerasimova.exception.CursorException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
@@ -36,6 +37,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    /**
+     * Обрабатывает некорректный токен продолжения курсорной пагинации.
+     *
+     * @param e исключение CursorException
+     * @return ResponseEntity с ошибкой 400
+     */
+    @ExceptionHandler(CursorException.class)
+    public ResponseEntity<ErrorResponse> handleCursorException(CursorException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorResponse(e.getMessage()));
+    }
+
     /**
      * Обрабатывает ошибки валидации @Valid.
      *
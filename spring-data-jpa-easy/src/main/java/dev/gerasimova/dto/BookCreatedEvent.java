@@ -8,20 +8,25 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
+import java.util.UUID;
 /**
  * DTO для отправки сообщений для службы уведомлений NotificationService.
+ * eventId генерируется при записи события в outbox и не меняется при повторной отправке,
+ * по нему NotificationService отбрасывает повторно доставленные события.
  */
 @Schema(description = "DTO для отправки сообщений для службы уведомлений")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class BookCreatedEvent {
+    private String eventId;
     private Long bookId;
     private String title;
     private String authorSurname;
     private Instant createdAt;
     public static BookCreatedEvent from(Book book) {
         return new BookCreatedEvent(
+            UUID.randomUUID().toString(),
             book.getId(),
             book.getTitle(),
             book.getAuthor().getSurname(),
@@ -0,0 +1,23 @@
+package dev.gerasimova.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO книги для выгрузки каталога.
+ * В отличие от BookResponseDto содержит идентификаторы книги и автора,
+ * чтобы внешние системы (поисковый индексатор) могли сопоставлять записи.
+ */
+@Schema(description = "DTO книги для выгрузки каталога")
+public record BookExportDto(@Schema(description = "ID книги", example = "1")
+                            Long id,
+                            @Schema(description = "Название книги", example = "Война и мир")
+                            String title,
+                            @Schema(description = "ID автора книги", example = "1")
+                            Long authorId,
+                            @Schema(description = "Фамилия автора книги", example = "Толстой")
+                            String authorSurname,
+                            @Schema(description = "Цена книги в рублях", example = "1400.0")
+                            Double price,
+                            @Schema(description = "Год выпуска книги", example = "2013")
+                            Integer yearRelease) {
+}
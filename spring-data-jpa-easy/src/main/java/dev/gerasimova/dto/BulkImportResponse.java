@@ -0,0 +1,39 @@
+package dev.gerasimova.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO результата массовой загрузки книг.
+ *
+ * @param received количество прочитанных строк
+ * @param imported количество сохраненных книг
+ * @param failed количество отклоненных строк
+ * @param errors ошибки по строкам (не больше ограничения, остальные только учитываются в failed)
+ */
+@Schema(description = "Результат массовой загрузки книг")
+public record BulkImportResponse(
+        @Schema(description = "Прочитано строк", example = "10000")
+        long received,
+        @Schema(description = "Сохранено книг", example = "9998")
+        long imported,
+        @Schema(description = "Отклонено строк", example = "2")
+        long failed,
+        @Schema(description = "Ошибки по строкам")
+        List<RowError> errors
+) {
+    /**
+     * Ошибка обработки одной строки NDJSON.
+     *
+     * @param line номер строки, начиная с 1
+     * @param message описание ошибки
+     */
+    @Schema(description = "Ошибка строки")
+    public record RowError(
+            @Schema(description = "Номер строки", example = "17")
+            long line,
+            @Schema(description = "Описание ошибки", example = "authorID: ID автора обязателен")
+            String message
+    ) {}
+}
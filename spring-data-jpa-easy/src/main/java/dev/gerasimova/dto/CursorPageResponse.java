@@ -0,0 +1,24 @@
+package dev.gerasimova.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO страницы результатов для курсорной (keyset) пагинации.
+ * В отличие от Page не содержит общего количества элементов,
+ * поэтому для его построения не выполняется COUNT-запрос.
+ *
+ * @param content элементы текущей страницы
+ * @param nextCursor токен для запроса следующей страницы или null, если страница последняя
+ * @param hasNext признак наличия следующей страницы
+ */
+@Schema(description = "Страница результатов с токеном продолжения")
+public record CursorPageResponse<T>(
+        @Schema(description = "Элементы страницы")
+        List<T> content,
+        @Schema(description = "Токен следующей страницы", example = "eWVhclJlbGVhc2U6NDI6MjAxMw")
+        String nextCursor,
+        @Schema(description = "Есть ли следующая страница", example = "true")
+        boolean hasNext
+) {}
@@ -0,0 +1,12 @@
+package dev.gerasimova.exception;
+
+/**
+ * Исключение, выбрасываемое когда токен продолжения (cursor) поврежден
+ * или не соответствует запрошенной сортировке.
+ */
+public class CursorException extends RuntimeException {
+
+    public CursorException(String message) {
+        super(message);
+    }
+}
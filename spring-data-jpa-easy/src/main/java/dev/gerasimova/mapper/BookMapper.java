@@ -1,5 +1,6 @@
 package dev.gerasimova.mapper;
 
+import dev.gerasimova.dto.BookExportDto;
 import dev.gerasimova.dto.BookResponseDto;
 import dev.gerasimova.dto.CreateBookDto;
 import dev.gerasimova.dto.CreateBookWithAuthorDto;
@@ -15,6 +16,7 @@ import org.mapstruct.Mapping;
  *
  * @see Book
  * @see BookResponseDto
+ * @see BookExportDto
  * @see CreateBookDto
  * @see CreateBookWithAuthorDto
  */
@@ -41,4 +43,13 @@ public interface BookMapper {
      */
     @Mapping(source = "dto.yearRelease", target = "date")
     Book toBook(CreateBookDto dto);
+    /**
+     * Преобразует сущность книги в DTO для выгрузки каталога.
+     *
+     * @param book сущность книги с загруженным автором
+     * @return BookExportDto с идентификаторами книги и автора
+     */
+    @Mapping(source = "author.id", target = "authorId")
+    @Mapping(source = "author.surname", target = "authorSurname")
+    BookExportDto toBookExportDto(Book book);
 }
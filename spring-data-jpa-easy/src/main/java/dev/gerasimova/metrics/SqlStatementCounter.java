@@ -0,0 +1,59 @@
+package dev.gerasimova.metrics;
+
+/**
+ * Счетчик SQL-запросов и времени их выполнения в текущем потоке.
+ * Заполняется хуками Hibernate, сбрасывается в начале каждого HTTP-запроса
+ * фильтром SqlStatementMetricsFilter, в тестах - вручную.
+ *
+ * @see SqlStatementCountingInspector
+ * @see SqlTimingSessionListener
+ */
+public final class SqlStatementCounter {
+    private static final ThreadLocal<Counts> CURRENT = ThreadLocal.withInitial(Counts::new);
+
+    private SqlStatementCounter() {
+    }
+
+    private static final class Counts {
+        private long statements;
+        private long executionNanos;
+    }
+
+    /**
+     * Обнуляет счетчики текущего потока.
+     */
+    public static void reset() {
+        Counts counts = CURRENT.get();
+        counts.statements = 0;
+        counts.executionNanos = 0;
+    }
+
+    /**
+     * Удаляет счетчики текущего потока (в конце запроса, чтобы не держать их в пуле потоков).
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    static void statementPrepared() {
+        CURRENT.get().statements++;
+    }
+
+    static void executionFinished(long nanos) {
+        CURRENT.get().executionNanos += nanos;
+    }
+
+    /**
+     * @return количество подготовленных SQL-запросов с момента сброса
+     */
+    public static long statementCount() {
+        return CURRENT.get().statements;
+    }
+
+    /**
+     * @return суммарное время выполнения запросов в БД в наносекундах с момента сброса
+     */
+    public static long executionNanos() {
+        return CURRENT.get().executionNanos;
+    }
+}
@@ -0,0 +1,18 @@
+package dev.gerasimova.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * StatementInspector Hibernate, который учитывает каждый подготавливаемый SQL-запрос
+ * в SqlStatementCounter. Текст запроса не изменяется.
+ * Подключается свойством hibernate.session_factory.statement_inspector.
+ *
+ * @see SqlStatementCounter
+ */
+public class SqlStatementCountingInspector implements StatementInspector {
+    @Override
+    public String inspect(String sql) {
+        SqlStatementCounter.statementPrepared();
+        return sql;
+    }
+}
@@ -0,0 +1,41 @@
+package dev.gerasimova.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Добавляет в ответ отладочные заголовки X-Sql-Statements и X-Sql-Time-Ms
+ * с количеством SQL-запросов и временем в БД для текущего запроса.
+ * Заголовки пишутся перед сериализацией тела, пока ответ еще не отправлен.
+ * Включается свойством sql.debug-header.enabled.
+ *
+ * @see SqlStatementCounter
+ */
+@ControllerAdvice
+public class SqlStatementHeaderAdvice implements ResponseBodyAdvice<Object> {
+    @Value("${sql.debug-header.enabled:false}")
+    private boolean enabled;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        response.getHeaders().set("X-Sql-Statements", String.valueOf(SqlStatementCounter.statementCount()));
+        response.getHeaders().set("X-Sql-Time-Ms",
+                String.valueOf(TimeUnit.NANOSECONDS.toMillis(SqlStatementCounter.executionNanos())));
+        return body;
+    }
+}
@@ -0,0 +1,54 @@
+package dev.gerasimova.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фильтр, который считает SQL-запросы каждого HTTP-запроса и публикует метрики по endpoint:
+ * http.server.sql.statements - количество запросов, http.server.sql.time - время в БД.
+ * Метрики помечаются методом и шаблоном пути (uri), как http.server.requests.
+ *
+ * @see SqlStatementCounter
+ */
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+    private static final String UNKNOWN_URI = "UNKNOWN";
+    private final MeterRegistry meterRegistry;
+
+    public SqlStatementMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlStatementCounter.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : UNKNOWN_URI;
+            DistributionSummary.builder("http.server.sql.statements")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(SqlStatementCounter.statementCount());
+            Timer.builder("http.server.sql.time")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(SqlStatementCounter.executionNanos(), TimeUnit.NANOSECONDS);
+            SqlStatementCounter.clear();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package dev.gerasimova.metrics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Слушатель событий сессии Hibernate, который учитывает время выполнения
+ * запросов и JDBC-батчей в SqlStatementCounter.
+ * Создается Hibernate на каждую сессию, подключается свойством hibernate.session.events.auto.
+ *
+ * @see SqlStatementCounter
+ */
+public class SqlTimingSessionListener implements SessionEventListener {
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlStatementCounter.executionFinished(System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlStatementCounter.executionFinished(System.nanoTime() - batchStart);
+    }
+}
@@ -6,6 +6,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import jakarta.persistence.GenerationType;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Column;
 import jakarta.persistence.OneToMany;
 import lombok.Builder;
@@ -28,7 +29,8 @@ import java.util.List;
 @Schema(description = "Модель автора")
 public class Author {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "authors_seq")
+    @SequenceGenerator(name = "authors_seq", sequenceName = "authors_id_seq", allocationSize = 50)
     private Long id;
     @Column(nullable = false)
     @Schema(description = "Имя автора", example = "Лев")
@@ -0,0 +1,10 @@
+package dev.gerasimova.model;
+
+/**
+ * Enum с форматами выгрузки каталога книг.
+ * NDJSON - один JSON-объект на строку, CSV - таблица с заголовком.
+ */
+public enum ExportFormat {
+    NDJSON,
+    CSV
+}
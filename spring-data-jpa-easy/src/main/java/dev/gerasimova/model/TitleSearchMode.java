@@ -0,0 +1,12 @@
+package dev.gerasimova.model;
+
+/**
+ * Enum с режимами поиска книг по названию.
+ * SUBSTRING - вхождение подстроки, PREFIX - начало названия,
+ * FUZZY - нечеткое совпадение по триграммам (устойчиво к опечаткам).
+ */
+public enum TitleSearchMode {
+    SUBSTRING,
+    PREFIX,
+    FUZZY
+}
@@ -1,15 +1,25 @@
 package dev.gerasimova.repository;
 
 import dev.gerasimova.model.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для работы с сущностью Book в базе данных.
@@ -30,7 +40,67 @@ public interface BookRepository extends JpaRepository<Book, Long>  {
             "b.title = :title")
     Optional<Book> findByTitleAndAuthorSurname(@Param("title") String title, @Param("surname") String author);
 
-    @Query("SELECT b FROM Book b JOIN FETCH b.author WHERE lower(b.title) LIKE lower(concat('%', :searchText, '%')) " +
-            "ORDER BY b.yearRelease DESC")
-    List<Book> searchByTitleOrderByYear(@Param("searchText") String searchText);
+    /**
+     * Поиск id книг по вхождению подстроки в название с ранжированием по схожести.
+     * Использует триграммный индекс idx_books_title_trgm.
+     *
+     * @param query поисковая строка
+     * @param pattern поисковая строка с экранированными символами LIKE
+     * @param limit максимальное количество результатов
+     * @param offset смещение от начала выдачи
+     * @return id книг в порядке релевантности
+     */
+    @Query(value = "SELECT b.id FROM books b WHERE lower(b.title) LIKE '%' || lower(:pattern) || '%' " +
+            "ORDER BY similarity(lower(b.title), lower(:query)) DESC, b.year_release DESC, b.id " +
+            "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Long> searchIdsByTitleSubstring(@Param("query") String query, @Param("pattern") String pattern,
+                                         @Param("limit") int limit, @Param("offset") int offset);
+    /**
+     * Поиск id книг по началу названия с ранжированием по схожести.
+     *
+     * @see #searchIdsByTitleSubstring(String, String, int, int)
+     */
+    @Query(value = "SELECT b.id FROM books b WHERE lower(b.title) LIKE lower(:pattern) || '%' " +
+            "ORDER BY similarity(lower(b.title), lower(:query)) DESC, b.year_release DESC, b.id " +
+            "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Long> searchIdsByTitlePrefix(@Param("query") String query, @Param("pattern") String pattern,
+                                      @Param("limit") int limit, @Param("offset") int offset);
+    /**
+     * Нечеткий поиск id книг по словам названия (оператор pg_trgm {@code <%}), устойчивый к опечаткам.
+     *
+     * @see #searchIdsByTitleSubstring(String, String, int, int)
+     */
+    @Query(value = "SELECT b.id FROM books b WHERE lower(:query) <% lower(b.title) " +
+            "ORDER BY word_similarity(lower(:query), lower(b.title)) DESC, b.year_release DESC, b.id " +
+            "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Long> searchIdsByTitleFuzzy(@Param("query") String query,
+                                     @Param("limit") int limit, @Param("offset") int offset);
+    @Query("SELECT b FROM Book b JOIN FETCH b.author WHERE b.id IN :ids")
+    List<Book> findAllWithAuthorByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Keyset-выборки для курсорной пагинации: вместо OFFSET используется условие по ключу
+     * последней книги предыдущей страницы, COUNT-запрос не выполняется.
+     * Автор подгружается в том же запросе через EntityGraph.
+     */
+    @EntityGraph(attributePaths = "author")
+    Window<Book> findBooksBy(ScrollPosition position, Limit limit, Sort sort);
+    @EntityGraph(attributePaths = "author")
+    Window<Book> findBooksByTitle(String title, ScrollPosition position, Limit limit, Sort sort);
+    @EntityGraph(attributePaths = "author")
+    Window<Book> findBooksByAuthorSurname(String authorSurname, ScrollPosition position, Limit limit, Sort sort);
+
+    /**
+     * Потоковое чтение всех книг с авторами в порядке id для выгрузки каталога.
+     * Строки читаются серверным курсором порциями по fetch size, сущности загружаются
+     * только для чтения и не отслеживаются на изменения.
+     * Поток должен потребляться внутри транзакции и закрываться после использования.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT b FROM Book b JOIN FETCH b.author ORDER BY b.id")
+    Stream<Book> streamAllWithAuthor();
 }
@@ -4,9 +4,11 @@ import dev.gerasimova.model.OutboxEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,4 +19,28 @@ public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>
     void markAsPublished(Long id);
     @Query("SELECT e FROM OutboxEvent e WHERE e.published = false ORDER BY e.createdAt ASC")
     List<OutboxEvent> findUnpublishedEvents();
-}
\ No newline at end of file
+
+    /**
+     * Захватывает пачку неопубликованных событий под блокировку строк.
+     * Строки, уже заблокированные другой репликой, пропускаются (SKIP LOCKED),
+     * поэтому несколько экземпляров book-service могут разбирать outbox параллельно
+     * без повторной публикации. Блокировка держится до конца текущей транзакции.
+     *
+     * @param batchSize максимальное количество событий в пачке
+     * @return список захваченных событий в порядке создания
+     */
+    @Query(value = "SELECT * FROM outbox_events WHERE published = false " +
+            "ORDER BY created_at ASC LIMIT :batchSize FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<OutboxEvent> claimUnpublishedBatch(@Param("batchSize") int batchSize);
+
+    /**
+     * Помечает пачку событий опубликованными одним UPDATE.
+     *
+     * @param ids идентификаторы опубликованных событий
+     * @return количество обновленных строк
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.published = true WHERE e.id IN :ids")
+    int markAllAsPublished(@Param("ids") Collection<Long> ids);
+}
@@ -6,6 +6,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,6 +32,16 @@ public class AuthorService {
     public Optional<Author> findAuthorById(Long id) {
         return authorRepository.findById(id);
     }
+    /**
+     * Находит авторов по набору идентификаторов одним запросом.
+     *
+     * @param ids идентификаторы авторов
+     * @return найденные авторы, отсутствующие идентификаторы пропускаются
+     * @see AuthorRepository#findAllById(Iterable)
+     */
+    public List<Author> findAuthorsByIds(Collection<Long> ids) {
+        return authorRepository.findAllById(ids);
+    }
     /**
      * Сохраняет или обновляет автора в хранилище.
      * Если у автора не задан ID - создает новую запись.
@@ -0,0 +1,270 @@
+package dev.gerasimova.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gerasimova.cache.BookSearchCache;
+import dev.gerasimova.dto.BulkImportResponse;
+import dev.gerasimova.dto.CreateBookDto;
+import dev.gerasimova.mapper.BookMapper;
+import dev.gerasimova.model.Author;
+import dev.gerasimova.model.Book;
+import dev.gerasimova.model.OutboxEvent;
+import dev.gerasimova.repository.BookRepository;
+import dev.gerasimova.repository.OutboxEventRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Сервис массовой загрузки книг из NDJSON (одна книга CreateBookDto на строку).
+ * Строки читаются потоком и сохраняются пачками по books.bulk.chunk-size в отдельных транзакциях,
+ * поэтому вставки книг и событий outbox уходят в БД JDBC-батчами, а идентификаторы
+ * выделяются из пулов последовательностей без обращения к БД на каждую строку.
+ * Авторы пачки загружаются одним запросом и переиспользуются в пределах загрузки.
+ * Если пачка не сохранилась, она повторяется построчно, чтобы отклонить только ошибочные строки.
+ *
+ * @see BookService#saveBook(CreateBookDto)
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BookBulkImportService {
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private final BookRepository bookRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxEventFactory outboxEventFactory;
+    private final AuthorService authorService;
+    private final BookMapper bookMapper;
+    private final BookSearchCache bookSearchCache;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    @Value("${books.bulk.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Строка, прошедшая разбор и валидацию, с найденным автором.
+     */
+    private record BookRow(long line, CreateBookDto dto, Author author) {
+    }
+
+    /**
+     * Итоги загрузки, накапливаемые по мере обработки пачек.
+     */
+    private static final class ImportReport {
+        private long received;
+        private long imported;
+        private long failed;
+        private final List<BulkImportResponse.RowError> errors = new ArrayList<>();
+
+        void reject(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new BulkImportResponse.RowError(line, message));
+            }
+        }
+
+        BulkImportResponse toResponse() {
+            return new BulkImportResponse(received, imported, failed, errors);
+        }
+    }
+
+    /**
+     * Загружает книги из потока NDJSON.
+     * Пустые строки пропускаются, ошибочные строки попадают в отчет и не прерывают загрузку.
+     * Уведомления в notification-service для массовой загрузки не отправляются,
+     * события о создании книг публикуются через outbox.
+     *
+     * @param input поток NDJSON
+     * @return отчет о загрузке
+     * @throws IOException если поток не удалось прочитать
+     */
+    public BulkImportResponse importBooks(InputStream input) throws IOException {
+        ImportReport report = new ImportReport();
+        Map<Long, Author> authors = new HashMap<>();
+        List<BookRow> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        List<CreateBookDto> chunkDtos = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                report.received++;
+                CreateBookDto dto = parseRow(line, lineNumber, report);
+                if (dto == null) {
+                    continue;
+                }
+                chunkLines.add(lineNumber);
+                chunkDtos.add(dto);
+                if (chunkDtos.size() >= chunkSize) {
+                    resolveAuthors(chunkLines, chunkDtos, authors, chunk, report);
+                    saveChunk(chunk, report);
+                    chunkLines.clear();
+                    chunkDtos.clear();
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunkDtos.isEmpty()) {
+            resolveAuthors(chunkLines, chunkDtos, authors, chunk, report);
+            saveChunk(chunk, report);
+        }
+
+        log.info("Массовая загрузка книг: прочитано {}, сохранено {}, отклонено {}",
+                report.received, report.imported, report.failed);
+        return report.toResponse();
+    }
+
+    /**
+     * Разбирает и валидирует строку. Возвращает null, если строка отклонена.
+     */
+    private CreateBookDto parseRow(String line, long lineNumber, ImportReport report) {
+        CreateBookDto dto;
+        try {
+            dto = objectMapper.readValue(line, CreateBookDto.class);
+        } catch (JsonProcessingException e) {
+            report.reject(lineNumber, "Некорректный JSON: " + e.getOriginalMessage());
+            return null;
+        }
+        Set<ConstraintViolation<CreateBookDto>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            report.reject(lineNumber, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return null;
+        }
+        return dto;
+    }
+
+    /**
+     * Дозагружает одним запросом авторов пачки, которых еще нет в карте загрузки,
+     * и отклоняет строки с несуществующими авторами.
+     */
+    private void resolveAuthors(List<Long> lines, List<CreateBookDto> dtos, Map<Long, Author> authors,
+                                List<BookRow> rows, ImportReport report) {
+        Set<Long> missing = new HashSet<>();
+        for (CreateBookDto dto : dtos) {
+            if (!authors.containsKey(dto.authorID())) {
+                missing.add(dto.authorID());
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Author author : authorService.findAuthorsByIds(missing)) {
+                authors.put(author.getId(), author);
+            }
+        }
+        for (int i = 0; i < dtos.size(); i++) {
+            CreateBookDto dto = dtos.get(i);
+            Author author = authors.get(dto.authorID());
+            if (author == null) {
+                report.reject(lines.get(i), "Автор не найден: " + dto.authorID());
+                continue;
+            }
+            try {
+                toBook(dto, author);
+            } catch (IllegalArgumentException e) {
+                report.reject(lines.get(i), e.getMessage());
+                continue;
+            }
+            rows.add(new BookRow(lines.get(i), dto, author));
+        }
+    }
+
+    /**
+     * Сохраняет пачку в одной транзакции, при ошибке БД или сериализации события повторяет ее построчно.
+     * После сохранения инвалидирует кэш поиска и очищает контекст персистентности,
+     * чтобы сохраненные сущности не накапливались в памяти до конца запроса.
+     */
+    private void saveChunk(List<BookRow> rows, ImportReport report) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<BookRow> saved = new ArrayList<>(rows.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(rows));
+            saved.addAll(rows);
+        } catch (DataAccessException | TransactionException | IllegalStateException e) {
+            log.warn("Пачка из {} книг не сохранена, повтор построчно: {}", rows.size(), e.getMessage());
+            for (BookRow row : rows) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(row)));
+                    saved.add(row);
+                } catch (DataAccessException | TransactionException rowException) {
+                    report.reject(row.line(), rowException.getMostSpecificCause().getMessage());
+                } catch (IllegalStateException rowException) {
+                    report.reject(row.line(), rowException.getMessage());
+                }
+            }
+        } finally {
+            entityManager.clear();
+        }
+        report.imported += saved.size();
+
+        if (!saved.isEmpty()) {
+            Set<String> surnames = new LinkedHashSet<>();
+            Set<String> titles = new LinkedHashSet<>();
+            for (BookRow row : saved) {
+                surnames.add(row.author().getSurname());
+                titles.add(row.dto().title());
+            }
+            bookSearchCache.invalidate(surnames, titles);
+        }
+    }
+
+    /**
+     * Сохраняет книги и их события outbox. Вызывается внутри транзакции.
+     * Сущности создаются заново при каждом вызове, чтобы построчный повтор
+     * не использовал идентификаторы из откатившейся транзакции.
+     */
+    private void persist(List<BookRow> rows) {
+        List<Book> books = new ArrayList<>(rows.size());
+        for (BookRow row : rows) {
+            books.add(toBook(row.dto(), row.author()));
+        }
+        List<Book> savedBooks = bookRepository.saveAll(books);
+
+        List<OutboxEvent> events = new ArrayList<>(savedBooks.size());
+        for (Book savedBook : savedBooks) {
+            try {
+                events.add(outboxEventFactory.bookCreated(savedBook));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Не удалось сериализовать событие для книги " + savedBook.getId(), e);
+            }
+        }
+        outboxEventRepository.saveAll(events);
+    }
+
+    private Book toBook(CreateBookDto dto, Author author) {
+        Book book = bookMapper.toBook(dto);
+        book.setAuthor(author);
+        return book;
+    }
+}
@@ -0,0 +1,114 @@
+package dev.gerasimova.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import dev.gerasimova.dto.BookExportDto;
+import dev.gerasimova.mapper.BookMapper;
+import dev.gerasimova.model.Book;
+import dev.gerasimova.model.ExportFormat;
+import dev.gerasimova.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Сервис потоковой выгрузки каталога книг в NDJSON или CSV.
+ * Книги читаются из БД серверным курсором и сразу пишутся в ответ, весь каталог
+ * в памяти не собирается. Контекст персистентности периодически очищается,
+ * поэтому потребление памяти не растет с размером каталога.
+ *
+ * @see BookRepository#streamAllWithAuthor()
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BookExportService {
+    private static final String CSV_HEADER = "id,title,authorId,authorSurname,price,yearRelease";
+    private final BookRepository bookRepository;
+    private final BookMapper bookMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    @Value("${books.export.clear-every:1000}")
+    private int clearEvery;
+
+    /**
+     * Выгружает все книги в поток в заданном формате.
+     * Транзакция только для чтения нужна, чтобы драйвер Postgres читал курсором с fetch size.
+     *
+     * @param format формат выгрузки
+     * @param out поток ответа, не закрывается
+     * @return количество выгруженных книг
+     * @throws IOException если запись в поток не удалась (например, клиент разорвал соединение)
+     */
+    @Transactional(readOnly = true)
+    public long exportBooks(ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        ObjectWriter jsonWriter = objectMapper.writerFor(BookExportDto.class);
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long count = 0;
+        try (Stream<Book> books = bookRepository.streamAllWithAuthor()) {
+            Iterator<Book> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                BookExportDto dto = bookMapper.toBookExportDto(iterator.next());
+                if (format == ExportFormat.CSV) {
+                    writeCsvRow(writer, dto);
+                } else {
+                    writer.write(jsonWriter.writeValueAsString(dto));
+                    writer.write('\n');
+                }
+                if (++count % clearEvery == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        writer.flush();
+        log.info("Выгружено книг: {}, формат {}", count, format);
+        return count;
+    }
+
+    private static void writeCsvRow(Writer writer, BookExportDto dto) throws IOException {
+        writer.write(String.valueOf(dto.id()));
+        writer.write(',');
+        writer.write(csvField(dto.title()));
+        writer.write(',');
+        writer.write(String.valueOf(dto.authorId()));
+        writer.write(',');
+        writer.write(csvField(dto.authorSurname()));
+        writer.write(',');
+        writer.write(dto.price() != null ? dto.price().toString() : "");
+        writer.write(',');
+        writer.write(dto.yearRelease() != null ? dto.yearRelease().toString() : "");
+        writer.write('\n');
+    }
+
+    /**
+     * Экранирует поле CSV по RFC 4180: поля с запятой, кавычкой или переводом строки
+     * заключаются в кавычки, кавычки внутри удваиваются.
+     */
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
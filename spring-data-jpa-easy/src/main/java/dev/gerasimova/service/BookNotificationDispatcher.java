@@ -0,0 +1,97 @@
+package dev.gerasimova.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Асинхронная отправка уведомлений о создании книг после коммита транзакции.
+ * Уведомление ставится в ограниченную очередь собственного пула потоков,
+ * поэтому задержки и повторы notification-service не влияют на время записи книги
+ * и не удерживают соединение с БД. При переполнении очереди уведомление отбрасывается:
+ * событие о создании книги все равно доставляется через outbox.
+ * Метрики: таймер book.notification.dispatch (result=success|failed), счетчик отброшенных
+ * уведомлений book.notification.dispatch.rejected и метрики пула executor.*.
+ *
+ * @see BookNotificationSender
+ */
+@Slf4j
+@Component
+public class BookNotificationDispatcher {
+    private static final String METRIC_NAME = "book.notification.dispatch";
+    private final BookNotificationSender notificationSender;
+    private final ThreadPoolExecutor executor;
+    private final Timer successTimer;
+    private final Timer failedTimer;
+    private final Counter rejectedCounter;
+
+    public BookNotificationDispatcher(BookNotificationSender notificationSender,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${notification.dispatch.threads:2}") int threads,
+                                      @Value("${notification.dispatch.queue-capacity:1000}") int queueCapacity) {
+        this.notificationSender = notificationSender;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("notification-dispatch-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "notificationDispatch", Tags.empty()).bindTo(meterRegistry);
+        this.successTimer = Timer.builder(METRIC_NAME).tag("result", "success").register(meterRegistry);
+        this.failedTimer = Timer.builder(METRIC_NAME).tag("result", "failed").register(meterRegistry);
+        this.rejectedCounter = Counter.builder(METRIC_NAME + ".rejected").register(meterRegistry);
+    }
+
+    /**
+     * Планирует отправку уведомления после коммита текущей транзакции.
+     * Если транзакция откатится, уведомление не отправляется.
+     *
+     * @param title название созданной книги
+     */
+    public void dispatchAfterCommit(String title) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(title);
+                }
+            });
+        } else {
+            dispatch(title);
+        }
+    }
+
+    private void dispatch(String title) {
+        try {
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                boolean delivered = notificationSender.send(title);
+                (delivered ? successTimer : failedTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Очередь уведомлений переполнена, уведомление о книге '{}' отброшено", title);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Не все уведомления отправлены до остановки, осталось в очереди: {}", executor.getQueue().size());
+            executor.shutdownNow();
+        }
+    }
+}
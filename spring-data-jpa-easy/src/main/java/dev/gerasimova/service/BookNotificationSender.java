@@ -0,0 +1,48 @@
+package dev.gerasimova.service;
+
+import dev.gerasimova.dto.BookNotificationRequest;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
+import io.github.resilience4j.retry.annotation.Retry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Компонент отправки уведомлений о создании книги в notification-service.
+ * Вызов защищен предохранителем, повторами и ограничителем частоты resilience4j.
+ * Вызывается из фонового пула BookNotificationDispatcher, а не из потока запроса.
+ *
+ * @see BookNotificationDispatcher
+ * @see NotificationServiceClient
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookNotificationSender {
+    private final NotificationServiceClient notificationServiceClient;
+
+    /**
+     * Отправляет уведомление о создании книги.
+     *
+     * @param title название созданной книги
+     * @return true, если уведомление доставлено, false, если сработал fallback
+     */
+    @CircuitBreaker(name = "notificationService", fallbackMethod = "myFallbackMethod")
+    @Retry(name = "notificationService")
+    @RateLimiter(name = "notificationService")
+    public boolean send(String title) {
+        BookNotificationRequest request = new BookNotificationRequest(
+                "system",
+                "Уведомление о создании книги: " + title
+        );
+        String response = notificationServiceClient.sendNotification(request);
+        log.info("Уведомление отправлено: {}", response);
+        return true;
+    }
+
+    private boolean myFallbackMethod(String title, Exception e) {
+        log.error("Circuit Breaker: Уведомление не отправлено: {}", e.getMessage());
+        return false;
+    }
+}
@@ -1,20 +1,20 @@
 package dev.gerasimova.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gerasimova.cache.BookSearchCache;
 import dev.gerasimova.dto.*;
 import dev.gerasimova.exception.AuthorException;
 import dev.gerasimova.exception.BookException;
+import dev.gerasimova.exception.CursorException;
 import dev.gerasimova.mapper.AuthorMapper;
 import dev.gerasimova.mapper.BookMapper;
 import dev.gerasimova.model.Author;
 import dev.gerasimova.model.Book;
 import dev.gerasimova.model.OutboxEvent;
+import dev.gerasimova.model.TitleSearchMode;
 import dev.gerasimova.repository.BookRepository;
 import dev.gerasimova.repository.OutboxEventRepository;
-import feign.FeignException;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
-import io.github.resilience4j.retry.annotation.Retry;
+import dev.gerasimova.utils.BookCursorCodec;
+import dev.gerasimova.utils.PageableUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -24,12 +24,19 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Сервисный класс для управления бизнес-логикой работы с книгами.
@@ -43,14 +50,17 @@ import java.util.List;
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookService {
+    private static final Set<String> KEYSET_SORT_PROPERTIES = Set.of("id", "title", "yearRelease");
+    private static final int MAX_TITLE_SEARCH_RESULTS = 1000;
     private final BookRepository bookRepository;
     private final AuthorService authorService;
     private final BookMapper bookMapper;
     private final AuthorMapper authorMapper;
     private final KafkaTemplate<String, BookCreatedEvent> kafkaTemplate;
     private final OutboxEventRepository outboxEventRepository;
-    private final ObjectMapper objectMapper;
-    private final NotificationServiceClient notificationServiceClient;
+    private final OutboxEventFactory outboxEventFactory;
+    private final BookNotificationDispatcher bookNotificationDispatcher;
+    private final BookSearchCache bookSearchCache;
     @Value("${kafka.topics.book-events:book_events}")
     private String bookEventsTopic;
     @Value("${testTask10}")
@@ -83,16 +93,17 @@ public class BookService {
      * @return дто сохраненной книги
      * @see BookRepository#save(Object)
      */
-    @Transactional(noRollbackFor = FeignException.class)
+    @Transactional
     public BookResponseDto saveBook(CreateBookDto dto) {
         Author author = authorService.findAuthorById(dto.authorID())
                 .orElseThrow(() -> new AuthorException(dto.authorID()));
         Book book = bookMapper.toBook(dto);
         book.setAuthor(author);
         Book savedBook = bookRepository.save(book);
+        bookSearchCache.invalidate(author.getSurname(), savedBook.getTitle());
 
         saveToOutbox(savedBook);
-        sendBookCreationNotification(savedBook);
+        bookNotificationDispatcher.dispatchAfterCommit(savedBook.getTitle());
 
         return bookMapper.toBookResponseDto(savedBook);
     }
@@ -109,6 +120,8 @@ public class BookService {
         Book existingBook = findBookById(id);
         Author author = authorService.findAuthorById(dto.authorID())
                 .orElseThrow(() -> new AuthorException(dto.authorID()));
+        bookSearchCache.invalidate(existingBook.getAuthor().getSurname(), existingBook.getTitle());
+        bookSearchCache.invalidate(author.getSurname(), dto.title());
 
         existingBook.setTitle(dto.title());
         existingBook.setAuthor(author);
@@ -127,7 +140,9 @@ public class BookService {
     @CacheEvict(value = "books", key = "#id")
     @Transactional
     public void deleteBook(Long id) {
-        bookRepository.delete(findBookById(id));
+        Book book = findBookById(id);
+        bookSearchCache.invalidate(book.getAuthor().getSurname(), book.getTitle());
+        bookRepository.delete(book);
     }
     /**
      * Возвращает список всех книг из хранилища.
@@ -172,17 +187,52 @@ public class BookService {
                 .orElseThrow(()-> new BookException("Книги с названием " + title + "и автором "+ author +" не существует"));
     }
     /**
-     * Возвращает список книг по части названия книги без учета регистра и сортирует их по году издания.
+     * Возвращает страницу книг по названию без учета регистра, отсортированную по релевантности,
+     * а при равной релевантности - по году издания.
+     * Поиск выполняется по триграммному индексу, глубина выдачи ограничена MAX_TITLE_SEARCH_RESULTS.
      *
-     * @param searchText - часть названия
-     * @return список книг
-     * @see BookRepository#searchByTitleOrderByYear(String)
+     * @param searchText - поисковая строка
+     * @param mode - режим поиска: подстрока, начало названия или нечеткий поиск
+     * @param page - номер страницы (начинается с 0)
+     * @param size - количество книг на странице
+     * @return список книг, может быть пустым
+     * @see BookRepository#searchIdsByTitleSubstring(String, String, int, int)
      */
-    public List<BookResponseDto> searchByTitleOrderByYear(String searchText) {
-        return bookRepository.searchByTitleOrderByYear(searchText).stream()
+    public List<BookResponseDto> searchByTitle(String searchText, TitleSearchMode mode, int page, int size) {
+        long requestedOffset = (long) page * size;
+        if (searchText == null || searchText.isBlank() || requestedOffset >= MAX_TITLE_SEARCH_RESULTS) {
+            return List.of();
+        }
+        int offset = (int) requestedOffset;
+        int limit = Math.min(size, MAX_TITLE_SEARCH_RESULTS - offset);
+        String query = searchText.trim();
+        List<Long> ids = switch (mode) {
+            case SUBSTRING -> bookRepository.searchIdsByTitleSubstring(query, escapeLike(query), limit, offset);
+            case PREFIX -> bookRepository.searchIdsByTitlePrefix(query, escapeLike(query), limit, offset);
+            case FUZZY -> bookRepository.searchIdsByTitleFuzzy(query, limit, offset);
+        };
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Book> booksById = bookRepository.findAllWithAuthorByIdIn(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return ids.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
                 .map(bookMapper::toBookResponseDto)
                 .toList();
     }
+    /**
+     * Экранирует спецсимволы LIKE, чтобы они искались как обычные символы.
+     *
+     * @param text исходная строка
+     * @return строка для подстановки в шаблон LIKE
+     */
+    private String escapeLike(String text) {
+        return text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
 
     /**
      * Сохраняет в бд 2 сущности: новую книгу с новым автором, сели при сохранении падает исключение,
@@ -209,18 +259,31 @@ public class BookService {
                 .date(dto.yearRelease())
                 .build();
 
-        return bookMapper.toBookResponseDto(bookRepository.save(book));
+        Book savedBook = bookRepository.save(book);
+        bookSearchCache.invalidate(saveAuthor.getSurname(), savedBook.getTitle());
+        return bookMapper.toBookResponseDto(savedBook);
     }
     /**
      * Метод для получения списка книг/списка книг конкретного автора/
      * конкретной книги по названию и автору.
+     * Страницы кэшируются в BookSearchCache и инвалидируются по автору и названию измененной книги.
      *
      * @return - список книг или одну книг при поиске по автору и названию или пустой список.
+     * @see BookSearchCache
      */
     public Page<BookResponseDto> searchBook(String authorSurname, String title, PaginationParam paginationParam) {
+        Pageable pageable = PageableUtils.convertURLtoPageable(paginationParam.page(), paginationParam.size(), paginationParam.sort());
+        return bookSearchCache.getOrLoad(authorSurname, title, pageable,
+                () -> loadSearchPage(authorSurname, title, pageable));
+    }
+    /**
+     * Загружает страницу поиска из БД.
+     *
+     * @see #searchBook(String, String, PaginationParam)
+     */
+    private Page<BookResponseDto> loadSearchPage(String authorSurname, String title, Pageable pageable) {
         boolean hasAuthor = authorSurname != null && !authorSurname.isBlank();
         boolean hasTitle = title != null && !title.isBlank();
-        Pageable pageable = convertURLtoPageable(paginationParam.page(), paginationParam.size(), paginationParam.sort());
 
         if (hasAuthor && hasTitle) {
             List<Book> list = List.of(findByTitleAndAuthor(title, authorSurname));
@@ -239,76 +302,78 @@ public class BookService {
         }
     }
     /**
-     * Преобразует параметры URL в объект Pageable для пагинации и сортировки.
-     * Используется для создания объекта пагинации на основе параметров HTTP-запроса.
+     * Курсорный вариант searchBook: страница строится по ключу последней книги предыдущей страницы,
+     * поэтому стоимость запроса не зависит от глубины страницы и COUNT-запрос не выполняется.
      *
-     * @param page номер страницы (начинается с 0)
+     * @param authorSurname фамилия автора, может быть null
+     * @param title название книги, может быть null
+     * @param cursor токен продолжения из предыдущего ответа, null для первой страницы
      * @param size количество элементов на странице
-     * @param sort строка сортировки в формате "поле,направление" или просто "поле"
-     * @return объект Pageable с настройками пагинации и сортировки
-     * @see Pageable
-     * @see PageRequest
+     * @param sort сортировка в формате "поле,направление", поддерживаются поля id, title, yearRelease
+     * @return страница книг с токеном следующей страницы
+     * @throws CursorException если токен некорректен или сортировка не поддерживается
      */
-    private Pageable convertURLtoPageable(int page, int size, String sort) {
-        Sort sortObj = (sort != null && !sort.isBlank())
-                ? parseSort(sort)
-                : Sort.unsorted();
-       return PageRequest.of(page, size, sortObj);
+    public CursorPageResponse<BookResponseDto> searchBookByCursor(String authorSurname, String title,
+                                                                  String cursor, int size, String sort) {
+        boolean hasAuthor = authorSurname != null && !authorSurname.isBlank();
+        boolean hasTitle = title != null && !title.isBlank();
+
+        if (hasAuthor && hasTitle) {
+            return new CursorPageResponse<>(
+                    List.of(bookMapper.toBookResponseDto(findByTitleAndAuthor(title, authorSurname))),
+                    null, false);
+        }
+
+        Sort.Order order = parseKeysetOrder(sort);
+        Sort sortObj = "id".equals(order.getProperty())
+                ? Sort.by(order)
+                : Sort.by(order, new Sort.Order(order.getDirection(), "id"));
+        ScrollPosition position = BookCursorCodec.decode(cursor, order);
+        Limit limit = Limit.of(size);
+
+        Window<Book> window;
+        if (hasAuthor) {
+            window = bookRepository.findBooksByAuthorSurname(authorSurname, position, limit, sortObj);
+        } else if (hasTitle) {
+            window = bookRepository.findBooksByTitle(title, position, limit, sortObj);
+        } else {
+            window = bookRepository.findBooksBy(position, limit, sortObj);
+        }
+
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? BookCursorCodec.encode(window.positionAt(window.size() - 1), order)
+                : null;
+        return new CursorPageResponse<>(
+                window.getContent().stream().map(bookMapper::toBookResponseDto).toList(),
+                nextCursor,
+                nextCursor != null);
     }
     /**
-     * Парсит строку сортировки в объект Sort.
-     * Поддерживает два формата: простое поле ("title") и поле с направлением ("price,desc").
+     * Разбирает сортировку для курсорной пагинации.
+     * Допускается одно поле из KEYSET_SORT_PROPERTIES, по умолчанию сортировка по id.
      *
-     * @param sort строка для парсинга, может быть null или пустой
-     * @return объект Sort, либо Sort.unsorted() если строка пустая
-     * @see Sort
+     * @param sort строка сортировки, может быть null или пустой
+     * @return порядок сортировки
+     * @throws CursorException если поле не поддерживается
      */
-    private Sort parseSort(String sort) {
-        if (sort == null || sort.isBlank()) {
-            return Sort.unsorted();
+    private Sort.Order parseKeysetOrder(String sort) {
+        Sort parsed = PageableUtils.parseSort(sort);
+        if (parsed.isUnsorted()) {
+            return Sort.Order.asc("id");
         }
-        if (sort.contains(",")) {
-            String[] parts = sort.split(",");
-            if (parts.length == 2) {
-                return Sort.by(Sort.Direction.fromString(parts[1]), parts[0]);
-            }
+        Sort.Order order = parsed.iterator().next();
+        if (!KEYSET_SORT_PROPERTIES.contains(order.getProperty())) {
+            throw new CursorException("Сортировка по полю " + order.getProperty() + " не поддерживается");
         }
-        return Sort.by(sort);
+        return order;
     }
-
-    /**
-     * Тестовый метод отправки уведомлений для проверки работы предохранителя.
-     */
-    @CircuitBreaker(name = "notificationService", fallbackMethod = "myFallbackMethod")
-    @Retry(name = "notificationService")
-    @RateLimiter(name = "notificationService")
-    public void sendBookCreationNotification(Book savedBook) {
-
-        BookNotificationRequest request = new BookNotificationRequest(
-                "system",
-                "Уведомление о создании книги: " + savedBook.getTitle()
-        );
-        String response = notificationServiceClient.sendNotification(request);
-        log.info("Уведомление отправлено: {}", response);
-    }
-    private void myFallbackMethod(Exception e) {
-        log.error("Circuit Breaker: Уведомление не отправлено: {}", e.getMessage());
-    }
-
     /**
      * Метод для отправки события в Кафку
      * @param savedBook - книга, уведомления о создании которой отправляются в Кафка.
      */
     private void saveToOutbox(Book savedBook) {
-        BookCreatedEvent event = BookCreatedEvent.from(savedBook);
         try {
-            String eventJson = objectMapper.writeValueAsString(event);
-
-            OutboxEvent outboxEvent = OutboxEvent.builder()
-                    .book(savedBook)
-                    .eventData(eventJson)
-                    .published(false)
-                    .build();
+            OutboxEvent outboxEvent = outboxEventFactory.bookCreated(savedBook);
 
             outboxEventRepository.save(outboxEvent);
             log.info("Событие сохранено в outbox с ID: {}", outboxEvent.getId());
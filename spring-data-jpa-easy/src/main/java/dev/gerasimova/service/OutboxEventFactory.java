@@ -0,0 +1,39 @@
+package dev.gerasimova.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gerasimova.dto.BookCreatedEvent;
+import dev.gerasimova.model.Book;
+import dev.gerasimova.model.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Компонент для создания записей outbox о создании книги.
+ * Используется при одиночном создании книги и при массовой загрузке каталога.
+ *
+ * @see OutboxEvent
+ * @see OutboxProcessor
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxEventFactory {
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Создает неопубликованное событие BookCreatedEvent для сохраненной книги.
+     * Идентификатор события назначается здесь и сохраняется в outbox вместе с телом события.
+     *
+     * @param savedBook книга с назначенным идентификатором
+     * @return событие для сохранения в outbox_events
+     * @throws JsonProcessingException если событие не удалось сериализовать
+     */
+    public OutboxEvent bookCreated(Book savedBook) throws JsonProcessingException {
+        BookCreatedEvent event = BookCreatedEvent.from(savedBook);
+        return OutboxEvent.builder()
+                .book(savedBook)
+                .eventData(objectMapper.writeValueAsString(event))
+                .published(false)
+                .build();
+    }
+}
@@ -4,52 +4,94 @@ import dev.gerasimova.model.OutboxEvent;
 import dev.gerasimova.repository.OutboxEventRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class OutboxProcessor {
-    
+
     private final OutboxEventRepository outboxEventRepository;
     private final KafkaTemplate<String, String> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    @Value("${outbox.batch-size:100}")
+    private int batchSize;
+    @Value("${outbox.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+    @Value("${outbox.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
 
     /**
-     * Метод раз в 5 сек проверяет, есть ли неопубликованные сообщения в таблице outbox_events.
-     * Если есть - публикует их в Кафка.
-     * После успешной публикации в Кафка помечает сообщения обработанными.
+     * Метод раз в 5 сек разбирает таблицу outbox_events пачками.
+     * Каждая пачка захватывается в отдельной короткой транзакции через FOR UPDATE SKIP LOCKED,
+     * поэтому несколько реплик book-service могут разбирать outbox параллельно без дублей.
+     * Разбор продолжается, пока пачки публикуются полностью, но не дольше outbox.max-batches-per-run пачек за запуск.
      */
     @Scheduled(fixedDelay = 5000)
-    @Transactional
     public void processOutbox() {
+        int batches = 0;
+        int published;
+        do {
+            Integer result = transactionTemplate.execute(status -> drainBatch());
+            published = result != null ? result : 0;
+            batches++;
+        } while (published == batchSize && batches < maxBatchesPerRun);
+    }
+
+    /**
+     * Захватывает пачку событий, отправляет их в Кафка без ожидания каждого ответа,
+     * затем дожидается подтверждений с общим дедлайном и помечает успешно отправленные
+     * события опубликованными одним UPDATE.
+     * Неотправленные события остаются неопубликованными и будут захвачены повторно.
+     *
+     * @return количество опубликованных событий
+     */
+    private int drainBatch() {
+        List<OutboxEvent> events = outboxEventRepository.claimUnpublishedBatch(batchSize);
 
-        List<OutboxEvent> unpublishedEvents =
-            outboxEventRepository.findUnpublishedEvents();
-        
-        if (unpublishedEvents.isEmpty()) {
+        if (events.isEmpty()) {
             log.debug("Нет неопубликованных событий");
-            return;
+            return 0;
         }
-        
-        log.info("Найдено {} неопубликованных событий", unpublishedEvents.size());
-        
-        for (OutboxEvent event : unpublishedEvents) {
-            try {
-                kafkaTemplate.send("book_events", event.getEventData())
-                        .get(5, java.util.concurrent.TimeUnit.SECONDS);
 
-                outboxEventRepository.markAsPublished(event.getId());
-                log.info("Событие {} опубликовано", event.getId());
-                
-            } catch (Exception e) {
-                log.error("Ошибка при публикации события {}", event.getId(), e);
+        Map<Long, CompletableFuture<SendResult<String, String>>> sends = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            sends.put(event.getId(), kafkaTemplate.send("book_events", event.getEventData()));
+        }
 
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        List<Long> publishedIds = new ArrayList<>(events.size());
+        for (Map.Entry<Long, CompletableFuture<SendResult<String, String>>> send : sends.entrySet()) {
+            try {
+                send.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                publishedIds.add(send.getKey());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Публикация пачки прервана на событии {}", send.getKey());
+                break;
+            } catch (ExecutionException | TimeoutException e) {
+                log.error("Ошибка при публикации события {}", send.getKey(), e);
             }
         }
+
+        if (!publishedIds.isEmpty()) {
+            outboxEventRepository.markAllAsPublished(publishedIds);
+        }
+        log.info("Опубликовано {} из {} захваченных событий", publishedIds.size(), events.size());
+        return publishedIds.size();
     }
-}
\ No newline at end of file
+}
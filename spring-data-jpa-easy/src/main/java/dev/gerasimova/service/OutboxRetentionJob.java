@@ -0,0 +1,110 @@
+package dev.gerasimova.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Задача обслуживания секций таблицы outbox_events.
+ * Заранее создает секции на текущий и следующий месяц, а секции старше
+ * outbox.retention-months удаляет или отсоединяет в архив, если в них не осталось
+ * неопубликованных событий. Благодаря этому поллер OutboxProcessor работает
+ * с небольшим объемом данных независимо от накопленной истории.
+ *
+ * @see OutboxProcessor
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRetentionJob {
+    private static final String PARTITION_PREFIX = "outbox_events_";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final long ADVISORY_LOCK_KEY = 4_200_001L;
+
+    private final JdbcTemplate jdbcTemplate;
+    @Value("${outbox.retention-months:3}")
+    private int retentionMonths;
+    @Value("${outbox.archive-enabled:false}")
+    private boolean archiveEnabled;
+
+    /**
+     * Раз в сутки создает будущие секции и очищает устаревшие.
+     * Выполняется только одной репликой: остальные не получают advisory-блокировку и пропускают запуск.
+     */
+    @Scheduled(cron = "${outbox.retention-cron:0 30 3 * * ?}")
+    @Transactional
+    public void maintainPartitions() {
+        try {
+            Boolean locked = jdbcTemplate.queryForObject(
+                    "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ADVISORY_LOCK_KEY);
+            if (!Boolean.TRUE.equals(locked)) {
+                log.debug("Обслуживание outbox выполняет другая реплика");
+                return;
+            }
+            YearMonth current = YearMonth.now();
+            createPartition(current);
+            createPartition(current.plusMonths(1));
+            dropExpiredPartitions(current.minusMonths(retentionMonths));
+        } catch (DataAccessException e) {
+            log.error("Ошибка при обслуживании секций outbox_events", e);
+        }
+    }
+
+    /**
+     * Создает секцию на указанный месяц, если ее еще нет.
+     *
+     * @param month месяц секции
+     */
+    private void createPartition(YearMonth month) {
+        String name = jdbcTemplate.queryForObject(
+                "SELECT create_outbox_events_partition(?)", String.class, month.atDay(1));
+        log.debug("Секция {} готова", name);
+    }
+
+    /**
+     * Удаляет (или отсоединяет в архив) секции, целиком лежащие раньше границы хранения.
+     * Секции с неопубликованными событиями не трогаются.
+     *
+     * @param oldestRetained самый старый месяц, который нужно сохранить
+     */
+    private void dropExpiredPartitions(YearMonth oldestRetained) {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "JOIN pg_class p ON p.oid = i.inhparent " +
+                        "WHERE p.relname = 'outbox_events' AND c.relname ~ '^outbox_events_[0-9]{6}$'",
+                String.class);
+
+        for (String partition : partitions) {
+            YearMonth month = YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+            if (!month.isBefore(oldestRetained)) {
+                continue;
+            }
+            Boolean hasPending = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + partition + " WHERE published = false)", Boolean.class);
+            if (Boolean.TRUE.equals(hasPending)) {
+                log.warn("Секция {} содержит неопубликованные события и не будет удалена", partition);
+                continue;
+            }
+            if (archiveEnabled) {
+                jdbcTemplate.execute("ALTER TABLE outbox_events DETACH PARTITION " + partition);
+                jdbcTemplate.execute("ALTER TABLE " + partition + " RENAME TO outbox_archive_" +
+                        month.format(PARTITION_SUFFIX));
+                log.info("Секция {} перенесена в архив", partition);
+            } else {
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                log.info("Секция {} удалена по сроку хранения (граница {})", partition,
+                        oldestRetained.atDay(1).format(DateTimeFormatter.ISO_LOCAL_DATE));
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package dev.gerasimova.utils;
+
+import dev.gerasimova.exception.CursorException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Кодирует и декодирует непрозрачный токен продолжения для keyset-пагинации книг.
+ * Токен содержит поле и направление сортировки, id последней книги на странице и значение
+ * поля сортировки у этой книги в формате "поле:направление:id:значение", закодированном в Base64 URL.
+ * Токен принимается только запросом с той же сортировкой, иначе страницы были бы неверными.
+ *
+ * @see KeysetScrollPosition
+ */
+public final class BookCursorCodec {
+    private static final String ID = "id";
+    private static final String SEPARATOR = ":";
+
+    private BookCursorCodec() {
+    }
+
+    /**
+     * Строит токен по позиции последнего элемента окна.
+     *
+     * @param position keyset-позиция последнего элемента страницы
+     * @param order сортировка страницы
+     * @return токен продолжения
+     */
+    public static String encode(ScrollPosition position, Sort.Order order) {
+        Map<String, Object> keys = ((KeysetScrollPosition) position).getKeys();
+        String sortProperty = order.getProperty();
+        String raw = sortProperty + SEPARATOR + order.getDirection() + SEPARATOR + keys.get(ID) + SEPARATOR
+                + (ID.equals(sortProperty) ? "" : keys.get(sortProperty));
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Восстанавливает позицию из токена.
+     *
+     * @param cursor токен продолжения, null или пустая строка означает первую страницу
+     * @param order сортировка текущего запроса
+     * @return позиция, с которой нужно продолжить выборку
+     * @throws CursorException если токен поврежден или выдан для другой сортировки
+     */
+    public static ScrollPosition decode(String cursor, Sort.Order order) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(SEPARATOR, 4);
+        } catch (IllegalArgumentException e) {
+            throw new CursorException("Некорректный токен продолжения");
+        }
+        String sortProperty = order.getProperty();
+        if (parts.length != 4 || !parts[0].equals(sortProperty) || !parts[1].equals(order.getDirection().name())) {
+            throw new CursorException("Токен продолжения не соответствует сортировке "
+                    + sortProperty + "," + order.getDirection().name().toLowerCase(Locale.ROOT));
+        }
+        try {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            if (!ID.equals(sortProperty)) {
+                keys.put(sortProperty, parseValue(sortProperty, parts[3]));
+            }
+            keys.put(ID, Long.valueOf(parts[2]));
+            return ScrollPosition.forward(keys);
+        } catch (NumberFormatException e) {
+            throw new CursorException("Некорректный токен продолжения");
+        }
+    }
+
+    private static Object parseValue(String sortProperty, String value) {
+        return switch (sortProperty) {
+            case "yearRelease" -> Integer.valueOf(value);
+            case "title" -> value;
+            default -> throw new CursorException("Сортировка по полю " + sortProperty + " не поддерживается");
+        };
+    }
+}
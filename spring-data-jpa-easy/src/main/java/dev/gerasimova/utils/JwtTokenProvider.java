@@ -1,13 +1,18 @@
 package dev.gerasimova.utils;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.context.config.annotation.RefreshScope;
 import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
@@ -15,10 +20,18 @@ import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 /**
  * Компонент для работы с JWT токенами.
  * Обеспечивает генерацию, валидацию и извлечение данных из JWT токенов.
+ * Для проверки используется один заранее собранный потокобезопасный парсер.
+ * Проверенные claims кэшируются по SHA-256 токена до истечения срока действия токена,
+ * поэтому повторные проверки того же токена не пересчитывают подпись.
  *
  * @see Jwts
  */
@@ -26,14 +39,30 @@ import java.util.Date;
 @Component
 @Slf4j
 public class JwtTokenProvider {
+    private static final int DEFAULT_CLAIMS_CACHE_SIZE = 10_000;
     private final SecretKey secretKey;
+    private final JwtParser jwtParser;
+    private final Cache<String, Claims> claimsCache;
     @Getter
     @Value("${jwt.expiration}")
     private Long expirationMs;
 
+    public JwtTokenProvider(String secret) {
+        this(secret, DEFAULT_CLAIMS_CACHE_SIZE);
+    }
+
+    @Autowired
     public JwtTokenProvider(
-            @Value("${jwt.secret}") String secret) {
+            @Value("${jwt.secret}") String secret,
+            @Value("${jwt.claims-cache.max-size:10000}") long claimsCacheMaxSize) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .build();
     }
     @PostConstruct
     public void init() {
@@ -73,10 +102,7 @@ public class JwtTokenProvider {
             throw new IllegalArgumentException("Токен не может быть пустым");
         }
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(secretKey)
-                    .build()
-                    .parseClaimsJws(token);
+            verifiedClaims(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
@@ -90,12 +116,59 @@ public class JwtTokenProvider {
      * @throws JwtException если токен невалиден
      */
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+        return verifiedClaims(token).getSubject();
+    }
+    /**
+     * Возвращает проверенные claims токена из кэша или проверяет подпись и срок действия
+     * и кладет результат в кэш. Невалидные токены не кэшируются.
+     *
+     * @param token JWT токен
+     * @return claims токена
+     * @throws JwtException если токен невалиден или истек
+     */
+    private Claims verifiedClaims(String token) {
+        String key = sha256(token);
+        Claims cached = claimsCache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        claimsCache.put(key, claims);
+        return claims;
+    }
+
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    /**
+     * Время жизни записи кэша равно оставшемуся сроку действия токена.
+     * Токены без срока действия в кэше не задерживаются.
+     */
+    private static final class TokenExpiry implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0;
+            }
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiration.getTime() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 
 }
@@ -0,0 +1,54 @@
+package dev.gerasimova.utils;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Преобразование параметров пагинации и сортировки из URL в объекты Spring Data.
+ *
+ * @see Pageable
+ * @see Sort
+ */
+public final class PageableUtils {
+    private PageableUtils() {
+    }
+
+    /**
+     * Преобразует параметры URL в объект Pageable для пагинации и сортировки.
+     * Используется для создания объекта пагинации на основе параметров HTTP-запроса.
+     *
+     * @param page номер страницы (начинается с 0)
+     * @param size количество элементов на странице
+     * @param sort строка сортировки в формате "поле,направление" или просто "поле"
+     * @return объект Pageable с настройками пагинации и сортировки
+     * @see Pageable
+     * @see PageRequest
+     */
+    public static Pageable convertURLtoPageable(int page, int size, String sort) {
+        Sort sortObj = (sort != null && !sort.isBlank())
+                ? parseSort(sort)
+                : Sort.unsorted();
+        return PageRequest.of(page, size, sortObj);
+    }
+    /**
+     * Парсит строку сортировки в объект Sort.
+     * Поддерживает два формата: простое поле ("title") и поле с направлением ("price,desc").
+     *
+     * @param sort строка для парсинга, может быть null или пустой
+     * @return объект Sort, либо Sort.unsorted() если строка пустая
+     * @see Sort
+     */
+    public static Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.unsorted();
+        }
+        if (sort.contains(",")) {
+            String[] parts = sort.split(",");
+            if (parts.length == 2) {
+                return Sort.by(Sort.Direction.fromString(parts[1]), parts[0]);
+            }
+        }
+        return Sort.by(sort);
+    }
+}
@@ -0,0 +1,4 @@
+CREATE INDEX idx_books_title_id ON books (title, id);
+CREATE INDEX idx_books_year_release_id ON books (year_release, id);
+CREATE INDEX idx_books_author_id_id ON books (author_id, id);
+CREATE INDEX idx_authors_surname ON authors (surname);
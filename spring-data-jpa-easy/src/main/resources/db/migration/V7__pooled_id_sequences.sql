@@ -0,0 +1,10 @@
+-- Сущности Author, Book и OutboxEvent получают id из последовательностей с шагом 50 (pooled-оптимизатор Hibernate),
+-- что позволяет Hibernate объединять INSERT в JDBC-батчи.
+CREATE SEQUENCE IF NOT EXISTS authors_id_seq;
+ALTER SEQUENCE authors_id_seq INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS books_id_seq;
+ALTER SEQUENCE books_id_seq INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS outbox_events_id_seq;
+ALTER SEQUENCE outbox_events_id_seq INCREMENT BY 50;
@@ -1,6 +1,7 @@
 import dev.gerasimova.utils.JwtTokenProvider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -26,6 +27,7 @@ class JwtTokenProviderUnitTest {
         jwtTokenProvider = new JwtTokenProvider(
                 "testSecretKey1234567890123456789012"
         );
+        ReflectionTestUtils.setField(jwtTokenProvider, "expirationMs", 900000L);
     }
     /**
      * Проверяет что метод generateToken создает непустой токен.
@@ -84,4 +86,20 @@ class JwtTokenProviderUnitTest {
                 () -> jwtTokenProvider.validateToken("")
         );
     }
+    /**
+     * Проверяет что повторная проверка того же токена (из кэша claims) дает тот же результат,
+     * а токен, подписанный другим ключом, не принимается.
+     */
+    @Test
+    void testRepeatedValidationUsesVerifiedClaims() {
+        String token = jwtTokenProvider.generateToken("testuser");
+
+        assertTrue(jwtTokenProvider.validateToken(token));
+        assertTrue(jwtTokenProvider.validateToken(token));
+        assertEquals("testuser", jwtTokenProvider.getUsernameFromToken(token));
+
+        JwtTokenProvider otherProvider = new JwtTokenProvider("otherSecretKey12345678901234567890123");
+        assertFalse(otherProvider.validateToken(token),
+                "Токен, подписанный другим ключом, должен возвращать false");
+    }
 }
@@ -0,0 +1,79 @@
+package dev.gerasimova.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit-тесты для TwoLevelCache и TwoLevelCacheManager.
+ * В качестве L2 вместо Redis используется ConcurrentMapCacheManager, шаблон Redis мокируется.
+ *
+ * @see TwoLevelCache
+ * @see TwoLevelCacheManager
+ */
+class TwoLevelCacheTest {
+    private static final String CHANNEL = "test-invalidation";
+
+    private ConcurrentMapCacheManager remoteCacheManager;
+    private StringRedisTemplate redisTemplate;
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        remoteCacheManager = new ConcurrentMapCacheManager("books");
+        redisTemplate = mock(StringRedisTemplate.class);
+        cacheManager = new TwoLevelCacheManager(remoteCacheManager, redisTemplate, CHANNEL, 100, Duration.ofMinutes(1));
+    }
+    /**
+     * Проверяет, что после загрузки значение отдается из L1 без обращения к L2.
+     */
+    @Test
+    void getServesValueFromLocalLevel() {
+        Cache cache = cacheManager.getCache("books");
+        cache.put(1L, "book");
+
+        remoteCacheManager.getCache("books").evict(1L);
+
+        assertEquals("book", cache.get(1L, String.class));
+    }
+    /**
+     * Проверяет, что удаление сбрасывает оба уровня и рассылает инвалидацию.
+     */
+    @Test
+    void evictClearsBothLevelsAndPublishesInvalidation() {
+        Cache cache = cacheManager.getCache("books");
+        cache.put(1L, "book");
+
+        cache.evict(1L);
+
+        assertNull(cache.get(1L));
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), anyString());
+    }
+    /**
+     * Проверяет, что сообщение от другой реплики сбрасывает только L1.
+     */
+    @Test
+    void invalidationFromOtherReplicaEvictsLocalLevel() {
+        Cache cache = cacheManager.getCache("books");
+        cache.put(1L, "old");
+        remoteCacheManager.getCache("books").put(1L, "new");
+
+        cacheManager.onMessage(new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "other-replica|books|1".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertEquals("new", cache.get(1L, String.class));
+    }
+}
@@ -0,0 +1,108 @@
+package dev.gerasimova.controller;
+
+import dev.gerasimova.dto.BookExportDto;
+import dev.gerasimova.mapper.BookMapper;
+import dev.gerasimova.model.Book;
+import dev.gerasimova.repository.BookRepository;
+import dev.gerasimova.service.BookBulkImportService;
+import dev.gerasimova.service.BookExportService;
+import dev.gerasimova.service.UserService;
+import dev.gerasimova.utils.JwtTokenProvider;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+/**
+ * Слайс-тест выгрузки каталога через BookBulkController.
+ * BookExportService настоящий, репозиторий и маппер мокируются,
+ * поэтому проверяется фактический текст NDJSON и CSV в ответе.
+ *
+ * @see BookExportService
+ */
+@WebMvcTest(BookBulkController.class)
+@Import(BookExportService.class)
+class BookBulkControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @MockitoBean
+    private BookBulkImportService bookBulkImportService;
+    @MockitoBean
+    private BookRepository bookRepository;
+    @MockitoBean
+    private BookMapper bookMapper;
+    @MockitoBean
+    private EntityManager entityManager;
+    @MockitoBean
+    private JwtTokenProvider jwtTokenProvider;
+    @MockitoBean
+    private UserService userService;
+
+    private final Book first = new Book();
+    private final Book second = new Book();
+    /**
+     * Готовит две книги, название второй содержит запятую, кавычки и перевод строки.
+     */
+    @BeforeEach
+    void setUp() {
+        when(bookRepository.streamAllWithAuthor()).thenAnswer(invocation -> Stream.of(first, second));
+        when(bookMapper.toBookExportDto(first))
+                .thenReturn(new BookExportDto(1L, "Война и мир", 10L, "Толстой", 400.0, 2013));
+        when(bookMapper.toBookExportDto(second))
+                .thenReturn(new BookExportDto(2L, "Книга \"Первая\", том 1\nчасть 2", 11L, "Гоголь", null, 1842));
+    }
+    /**
+     * Тестирует выгрузку в NDJSON: по одному JSON-объекту на строку и заголовки вложения.
+     *
+     * @throws Exception если выполнение HTTP-запроса завершится ошибкой
+     */
+    @Test
+    @WithMockUser
+    void exportBooks_Ndjson_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        String body = mockMvc.perform(get("/api/books/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books.ndjson\""))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals("""
+                {"id":1,"title":"Война и мир","authorId":10,"authorSurname":"Толстой","price":400.0,"yearRelease":2013}
+                {"id":2,"title":"Книга \\"Первая\\", том 1\\nчасть 2","authorId":11,"authorSurname":"Гоголь","price":null,"yearRelease":1842}
+                """, body);
+    }
+    /**
+     * Тестирует выгрузку в CSV: заголовок, экранирование запятых, кавычек и переводов строк
+     * по RFC 4180 и пустые значения для отсутствующих полей.
+     *
+     * @throws Exception если выполнение HTTP-запроса завершится ошибкой
+     */
+    @Test
+    @WithMockUser
+    void exportBooks_Csv_ShouldEscapeFields() throws Exception {
+        String body = mockMvc.perform(get("/api/books/export").param("format", "CSV"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books.csv\""))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals("id,title,authorId,authorSurname,price,yearRelease\n"
+                + "1,Война и мир,10,Толстой,400.0,2013\n"
+                + "2,\"Книга \"\"Первая\"\", том 1\nчасть 2\",11,Гоголь,,1842\n", body);
+    }
+}
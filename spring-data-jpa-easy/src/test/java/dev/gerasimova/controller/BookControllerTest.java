@@ -3,6 +3,7 @@ package dev.gerasimova.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.gerasimova.dto.BookResponseDto;
 import dev.gerasimova.dto.CreateBookDto;
+import dev.gerasimova.model.TitleSearchMode;
 import dev.gerasimova.service.BookService;
 import dev.gerasimova.service.UserService;
 import dev.gerasimova.utils.JwtTokenProvider;
@@ -14,7 +15,11 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.mockito.Mockito.when;
@@ -102,4 +107,60 @@ class BookControllerTest {
                         .content(objectMapper.writeValueAsString(invalidDto)))
                 .andExpect(status().isBadRequest());
     }
+    /**
+     * Тестирует поиск по названию с явным режимом и страницей.
+     * Проверяет, что параметры передаются в сервис, а ответ - список книг.
+     *
+     * @throws Exception если выполнение HTTP-запроса завершится ошибкой
+     */
+    @Test
+    @WithMockUser
+    void searchBooksByTitle_WithMode_ShouldPassParametersToService() throws Exception {
+        BookResponseDto responseDto = new BookResponseDto("Война и мир", "Толстой", 400.0, 2013);
+        when(bookService.searchByTitle("Вайна", TitleSearchMode.FUZZY, 1, 10)).thenReturn(List.of(responseDto));
+
+        mockMvc.perform(get("/api/books/search/title")
+                        .param("title", "Вайна")
+                        .param("mode", "FUZZY")
+                        .param("page", "1")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Война и мир"));
+
+        verify(bookService, times(1)).searchByTitle("Вайна", TitleSearchMode.FUZZY, 1, 10);
+    }
+    /**
+     * Тестирует значения по умолчанию поиска по названию: режим SUBSTRING, первая страница из 20 книг.
+     *
+     * @throws Exception если выполнение HTTP-запроса завершится ошибкой
+     */
+    @Test
+    @WithMockUser
+    void searchBooksByTitle_WithoutMode_ShouldUseSubstringDefaults() throws Exception {
+        when(bookService.searchByTitle("мир", TitleSearchMode.SUBSTRING, 0, 20)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/books/search/title").param("title", "мир"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+
+        verify(bookService, times(1)).searchByTitle("мир", TitleSearchMode.SUBSTRING, 0, 20);
+    }
+    /**
+     * Тестирует валидацию параметров поиска по названию: размер страницы больше 50,
+     * отрицательная страница и неизвестный режим возвращают 400 без обращения к сервису.
+     *
+     * @throws Exception если выполнение HTTP-запроса завершится ошибкой
+     */
+    @Test
+    @WithMockUser
+    void searchBooksByTitle_WithInvalidParameters_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/books/search/title").param("title", "мир").param("size", "51"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/books/search/title").param("title", "мир").param("page", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/books/search/title").param("title", "мир").param("mode", "REGEX"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookService, never()).searchByTitle(any(), any(), anyInt(), anyInt());
+    }
 }
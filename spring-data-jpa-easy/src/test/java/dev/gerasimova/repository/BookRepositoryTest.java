@@ -8,10 +8,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
+import static dev.gerasimova.utils.SqlStatementAssertions.assertQueryCount;
+import static dev.gerasimova.utils.SqlStatementAssertions.reset;
+
 /**
  * Слайс-тесты для BookRepository с использованием DataJpaTest.
  * Тестирует сохранение и поиск книг в изолированной H2 in-memory базе данных.
@@ -23,6 +27,8 @@ public class BookRepositoryTest {
     private BookRepository bookRepository;
     @Autowired
     private AuthorRepository authorRepository;
+    @Autowired
+    private TestEntityManager entityManager;
     /**
      * Создает и сохраняет автора в тестовой базе данных.
      *
@@ -93,6 +99,24 @@ public class BookRepositoryTest {
 
         assertBooksEqual(newBook, foundBook);
     }
+    /**
+     * Проверяет, что поиск по названию и фамилии загружает книгу вместе с автором одним запросом,
+     * и обращение к автору не вызывает дополнительной ленивой загрузки.
+     */
+    @Test
+    void findBookByAuthorSurnameAndTitleUsesSingleQuery() {
+        Author author = createAndSaveAuthor("TestName", "TestSurname");
+        createAndSaveBook("Test Book", 400.0, 2000, author);
+        entityManager.flush();
+        entityManager.clear();
+
+        reset();
+        Optional<Book> result = bookRepository.findByTitleAndAuthorSurname("Test Book", "TestSurname");
+
+        Assertions.assertTrue(result.isPresent());
+        Assertions.assertEquals("TestSurname", result.get().getAuthor().getSurname());
+        assertQueryCount(1);
+    }
 
     /**
      * Метод для сравнения книг, новой и полученной из бд.
@@ -0,0 +1,183 @@
+package dev.gerasimova.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gerasimova.cache.BookSearchCache;
+import dev.gerasimova.dto.BulkImportResponse;
+import dev.gerasimova.dto.CreateBookDto;
+import dev.gerasimova.mapper.BookMapper;
+import dev.gerasimova.model.Author;
+import dev.gerasimova.model.Book;
+import dev.gerasimova.model.OutboxEvent;
+import dev.gerasimova.repository.BookRepository;
+import dev.gerasimova.repository.OutboxEventRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+
+/**
+ * Unit-тесты для BookBulkImportService.
+ * Транзакции выполняются синхронно моком TransactionTemplate, JSON и валидация - настоящие.
+ *
+ * @see BookBulkImportService
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BookBulkImportServiceTest {
+    private static final long AUTHOR_ID = 1L;
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private OutboxEventFactory outboxEventFactory;
+    @Mock
+    private AuthorService authorService;
+    @Mock
+    private BookMapper bookMapper;
+    @Mock
+    private BookSearchCache bookSearchCache;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private EntityManager entityManager;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BookBulkImportService importService;
+    /**
+     * Собирает сервис с пачками по 2 строки; по умолчанию все сохраняется успешно.
+     */
+    @BeforeEach
+    void setUp() throws JsonProcessingException {
+        importService = new BookBulkImportService(bookRepository, outboxEventRepository, outboxEventFactory,
+                authorService, bookMapper, bookSearchCache, objectMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), transactionTemplate, entityManager);
+        ReflectionTestUtils.setField(importService, "chunkSize", 2);
+
+        Author author = new Author();
+        author.setId(AUTHOR_ID);
+        author.setSurname("Толстой");
+        Mockito.when(authorService.findAuthorsByIds(anyCollection())).thenReturn(List.of(author));
+        Mockito.when(bookMapper.toBook(any(CreateBookDto.class))).thenAnswer(invocation -> {
+            CreateBookDto dto = invocation.getArgument(0);
+            Book book = new Book();
+            book.setTitle(dto.title());
+            return book;
+        });
+        Mockito.when(bookRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        Mockito.when(outboxEventFactory.bookCreated(any(Book.class))).thenReturn(OutboxEvent.builder().build());
+        Mockito.doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+    /**
+     * Проверяет, что некорректный JSON, невалидные поля и несуществующий автор отклоняются
+     * с номерами строк, пустые строки пропускаются, а корректные строки сохраняются.
+     *
+     * @throws IOException если поток не удалось прочитать
+     */
+    @Test
+    void importRejectsInvalidLinesAndKeepsValid() throws IOException {
+        BulkImportResponse report = importService.importBooks(ndjson(
+                book("Война и мир", AUTHOR_ID, 400.0),
+                "{not json",
+                book("Анна Каренина", AUTHOR_ID, -1.0),
+                "",
+                book("Воскресение", 99L, 300.0)));
+
+        assertEquals(4, report.received());
+        assertEquals(1, report.imported());
+        assertEquals(3, report.failed());
+        assertEquals(List.of(2L, 3L, 5L), report.errors().stream().map(BulkImportResponse.RowError::line).toList());
+        assertTrue(report.errors().get(1).message().startsWith("price:"));
+        assertTrue(report.errors().get(2).message().contains("99"));
+        Mockito.verify(bookSearchCache).invalidate(Set.of("Толстой"), Set.of("Война и мир"));
+    }
+    /**
+     * Проверяет, что при ошибке БД пачка повторяется построчно и отклоняется только ошибочная строка.
+     *
+     * @throws IOException если поток не удалось прочитать
+     */
+    @Test
+    void failedChunkFallsBackToRowByRow() throws IOException {
+        Mockito.when(bookRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            if (books.stream().anyMatch(book -> book.getTitle().equals("Дубликат"))) {
+                throw new DataIntegrityViolationException("duplicate title");
+            }
+            return books;
+        });
+
+        BulkImportResponse report = importService.importBooks(ndjson(
+                book("Война и мир", AUTHOR_ID, 400.0),
+                book("Дубликат", AUTHOR_ID, 300.0)));
+
+        assertEquals(2, report.received());
+        assertEquals(1, report.imported());
+        assertEquals(1, report.failed());
+        assertEquals(2L, report.errors().get(0).line());
+        assertEquals("duplicate title", report.errors().get(0).message());
+        Mockito.verify(transactionTemplate, Mockito.times(3)).executeWithoutResult(any());
+    }
+    /**
+     * Проверяет, что ошибка сериализации события отклоняет одну строку, а не прерывает загрузку.
+     *
+     * @throws IOException если поток не удалось прочитать
+     */
+    @Test
+    void eventSerializationFailureRejectsOnlyThatRow() throws IOException {
+        Mockito.when(outboxEventFactory.bookCreated(any(Book.class))).thenAnswer(invocation -> {
+            Book book = invocation.getArgument(0);
+            if (book.getTitle().equals("Несериализуемая")) {
+                throw new JsonProcessingException("cannot serialize") {
+                };
+            }
+            return OutboxEvent.builder().build();
+        });
+
+        BulkImportResponse report = importService.importBooks(ndjson(
+                book("Несериализуемая", AUTHOR_ID, 100.0),
+                book("Война и мир", AUTHOR_ID, 400.0),
+                book("Воскресение", AUTHOR_ID, 300.0)));
+
+        assertEquals(3, report.received());
+        assertEquals(2, report.imported());
+        assertEquals(1, report.failed());
+        assertEquals(1L, report.errors().get(0).line());
+        assertTrue(report.errors().get(0).message().contains("сериализовать"));
+    }
+
+    private String book(String title, long authorId, double price) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(new CreateBookDto(title, authorId, price, 2000));
+    }
+
+    private static ByteArrayInputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,10 +1,12 @@
 package dev.gerasimova.service;
 
+import dev.gerasimova.cache.BookSearchCache;
 import dev.gerasimova.dto.BookResponseDto;
 import dev.gerasimova.mapper.AuthorMapper;
 import dev.gerasimova.mapper.BookMapper;
 import dev.gerasimova.model.Author;
 import dev.gerasimova.model.Book;
+import dev.gerasimova.model.TitleSearchMode;
 import dev.gerasimova.repository.AuthorRepository;
 import dev.gerasimova.repository.BookRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,10 +17,12 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 /**
  * Unit-тесты для BookService.
  *
@@ -39,6 +43,8 @@ public class BookServiceTest {
     private BookMapper bookMapper;
     @Mock
     private AuthorMapper authorMapper;
+    @Mock
+    private BookSearchCache bookSearchCache;
     @InjectMocks
     private BookService bookService;
     /**
@@ -109,4 +115,63 @@ public class BookServiceTest {
         Mockito.verify(bookRepository, Mockito.times(1)).findById(id);
         Mockito.verify(bookRepository, Mockito.times(1)).delete(testBook);
     }
+    /**
+     * Проверяет, что поиск подстроки экранирует спецсимволы LIKE и сохраняет порядок релевантности,
+     * в котором репозиторий вернул id, независимо от порядка загрузки книг.
+     */
+    @Test
+    void searchByTitleSubstringKeepsRelevanceOrder() {
+        Book first = book(1L, "50% скидка");
+        Book second = book(2L, "Скидка 50%_плюс");
+        BookResponseDto firstDto = new BookResponseDto("50% скидка", "Surname", 100.0, 2000);
+        BookResponseDto secondDto = new BookResponseDto("Скидка 50%_плюс", "Surname", 100.0, 2000);
+        Mockito.when(bookRepository.searchIdsByTitleSubstring("50%_", "50\\%\\_", 20, 0))
+                .thenReturn(List.of(2L, 1L));
+        Mockito.when(bookRepository.findAllWithAuthorByIdIn(List.of(2L, 1L))).thenReturn(List.of(first, second));
+        Mockito.when(bookMapper.toBookResponseDto(first)).thenReturn(firstDto);
+        Mockito.when(bookMapper.toBookResponseDto(second)).thenReturn(secondDto);
+
+        List<BookResponseDto> result = bookService.searchByTitle(" 50%_ ", TitleSearchMode.SUBSTRING, 0, 20);
+
+        assertEquals(List.of(secondDto, firstDto), result);
+    }
+    /**
+     * Проверяет, что режимы PREFIX и FUZZY используют свои запросы с тем же смещением.
+     */
+    @Test
+    void searchByTitleUsesQueryOfMode() {
+        Mockito.when(bookRepository.searchIdsByTitlePrefix("Война", "Война", 10, 20)).thenReturn(List.of());
+        Mockito.when(bookRepository.searchIdsByTitleFuzzy("Вайна", 10, 20)).thenReturn(List.of());
+
+        assertTrue(bookService.searchByTitle("Война", TitleSearchMode.PREFIX, 2, 10).isEmpty());
+        assertTrue(bookService.searchByTitle("Вайна", TitleSearchMode.FUZZY, 2, 10).isEmpty());
+
+        Mockito.verify(bookRepository).searchIdsByTitlePrefix("Война", "Война", 10, 20);
+        Mockito.verify(bookRepository).searchIdsByTitleFuzzy("Вайна", 10, 20);
+        Mockito.verify(bookRepository, Mockito.never()).findAllWithAuthorByIdIn(Mockito.anyList());
+    }
+    /**
+     * Проверяет ограничение глубины выдачи 1000 результатами: последняя страница урезается,
+     * страницы за пределом и пустая строка не обращаются к БД.
+     */
+    @Test
+    void searchByTitleIsCappedAtThousandResults() {
+        Mockito.when(bookRepository.searchIdsByTitleFuzzy("мир", 10, 990)).thenReturn(List.of());
+
+        bookService.searchByTitle("мир", TitleSearchMode.FUZZY, 33, 30);
+        List<BookResponseDto> beyondCap = bookService.searchByTitle("мир", TitleSearchMode.FUZZY, 40, 25);
+        List<BookResponseDto> blank = bookService.searchByTitle("  ", TitleSearchMode.SUBSTRING, 0, 20);
+
+        assertTrue(beyondCap.isEmpty());
+        assertTrue(blank.isEmpty());
+        Mockito.verify(bookRepository).searchIdsByTitleFuzzy("мир", 10, 990);
+        Mockito.verifyNoMoreInteractions(bookRepository);
+    }
+
+    private static Book book(Long id, String title) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        return book;
+    }
 }
@@ -0,0 +1,79 @@
+package dev.gerasimova.utils;
+
+import dev.gerasimova.exception.CursorException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-тесты для BookCursorCodec.
+ * Проверяет, что токен продолжения восстанавливает ту же keyset-позицию и отклоняет некорректные значения.
+ *
+ * @see BookCursorCodec
+ */
+class BookCursorCodecTest {
+    private static final Sort.Order TITLE_ASC = Sort.Order.asc("title");
+    /**
+     * Проверяет, что пустой токен означает первую страницу.
+     */
+    @Test
+    void decodeEmptyCursorReturnsInitialPosition() {
+        ScrollPosition position = BookCursorCodec.decode(null, TITLE_ASC);
+
+        assertTrue(position.isInitial());
+    }
+    /**
+     * Проверяет, что токен восстанавливает значения ключей, в том числе с разделителем в названии.
+     */
+    @Test
+    void encodeDecodeRoundTrip() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("title", "Война и мир: том 1");
+        keys.put("id", 42L);
+
+        String cursor = BookCursorCodec.encode(ScrollPosition.forward(keys), TITLE_ASC);
+        KeysetScrollPosition decoded = (KeysetScrollPosition) BookCursorCodec.decode(cursor, TITLE_ASC);
+
+        assertEquals("Война и мир: том 1", decoded.getKeys().get("title"));
+        assertEquals(42L, decoded.getKeys().get("id"));
+    }
+    /**
+     * Проверяет, что токен, выданный для одной сортировки, нельзя использовать с другой.
+     */
+    @Test
+    void decodeWithOtherSortThrowsException() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("yearRelease", 2013);
+        keys.put("id", 7L);
+        String cursor = BookCursorCodec.encode(ScrollPosition.forward(keys), Sort.Order.asc("yearRelease"));
+
+        assertThrows(CursorException.class, () -> BookCursorCodec.decode(cursor, TITLE_ASC));
+    }
+    /**
+     * Проверяет, что токен, выданный для одного направления сортировки, нельзя использовать с другим.
+     */
+    @Test
+    void decodeWithOtherDirectionThrowsException() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("title", "Идиот");
+        keys.put("id", 3L);
+        String cursor = BookCursorCodec.encode(ScrollPosition.forward(keys), TITLE_ASC);
+
+        assertThrows(CursorException.class, () -> BookCursorCodec.decode(cursor, Sort.Order.desc("title")));
+    }
+    /**
+     * Проверяет, что поврежденный токен отклоняется.
+     */
+    @Test
+    void decodeMalformedCursorThrowsException() {
+        assertThrows(CursorException.class, () -> BookCursorCodec.decode("not a cursor!", Sort.Order.asc("id")));
+    }
+}
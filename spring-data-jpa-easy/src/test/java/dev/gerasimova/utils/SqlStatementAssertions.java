@@ -0,0 +1,33 @@
+package dev.gerasimova.utils;
+
+import dev.gerasimova.metrics.SqlStatementCounter;
+import org.junit.jupiter.api.Assertions;
+
+/**
+ * Утверждения о количестве SQL-запросов для тестов, работающих с реальной БД.
+ * Перед проверяемым действием счетчик сбрасывается через reset(), после - сравнивается
+ * с ожидаемым значением, чтобы лишние запросы (N+1, ленивые загрузки) роняли сборку.
+ *
+ * @see SqlStatementCounter
+ */
+public final class SqlStatementAssertions {
+    private SqlStatementAssertions() {
+    }
+
+    /**
+     * Сбрасывает счетчик SQL-запросов текущего потока.
+     */
+    public static void reset() {
+        SqlStatementCounter.reset();
+    }
+
+    /**
+     * Проверяет, что с момента сброса выполнено ровно expected SQL-запросов.
+     *
+     * @param expected ожидаемое количество запросов
+     */
+    public static void assertQueryCount(long expected) {
+        Assertions.assertEquals(expected, SqlStatementCounter.statementCount(),
+                "Неожиданное количество SQL-запросов");
+    }
+}